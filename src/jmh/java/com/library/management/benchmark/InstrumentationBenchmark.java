@@ -0,0 +1,91 @@
+package com.library.management.benchmark;
+
+import com.library.management.LibraryManagementApplication;
+import com.library.management.dto.LoanSummary;
+import com.library.management.model.Book;
+import com.library.management.service.BookService;
+import com.library.management.service.LoanService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot-path cost of the service timing aspect, with the production percentile and histogram
+ * settings: a cached book lookup (where the relative overhead is largest) and a single-query
+ * loan summary read, each with service timing on and off.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstrumentationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean serviceTiming;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private LoanService loanService;
+    private long loanId;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(LibraryManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench_instrumentation_" + serviceTiming + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.password=",
+                        "--library.journal.dir=target/bench-journal-instrumentation",
+                        "--library.metrics.service-timing.enabled=" + serviceTiming,
+                        "--management.metrics.distribution.percentiles.library.service.method=0.5,0.95,0.99",
+                        "--management.metrics.distribution.percentiles-histogram.library.service.method=true",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.library.management=WARN");
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("INSERT INTO users (id, name, email, username, password, membership_type, active) " +
+                "VALUES (1, 'Patron', 'patron@example.com', 'patron', 'password', 'BASIC', TRUE)");
+        jdbc.update("INSERT INTO books (id, title, author, isbn, publication_date, genre, total_copies, available_copies) " +
+                "VALUES (1, 'Benchmark Book', 'Author', '0000000000001', DATE '2000-01-01', 'Technology', 10, 9)");
+        jdbc.update("INSERT INTO loans (id, user_id, book_id, loan_date, due_date, status) VALUES (1, 1, 1, ?, ?, 'BORROWED')",
+                LocalDate.now(), LocalDate.now().plusWeeks(2));
+
+        bookService = context.getBean(BookService.class);
+        loanService = context.getBean(LoanService.class);
+        loanId = 1L;
+        bookService.getBookById(1L);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Book cachedBookLookup() {
+        return bookService.getBookById(1L);
+    }
+
+    @Benchmark
+    public LoanSummary loanSummaryRead() {
+        return loanService.getLoanSummaryById(loanId);
+    }
+}
@@ -0,0 +1,123 @@
+package com.library.management.benchmark;
+
+import com.library.management.LibraryManagementApplication;
+import com.library.management.search.BookSearchIndexInitializer;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Boots the application against a private in-memory H2 database seeded with
+ * {@code rows} users, books and loans. Shared by every benchmark in a trial.
+ */
+@State(Scope.Benchmark)
+public class LibraryFixture {
+
+    static final String[] WORDS = {
+            "river", "shadow", "garden", "empire", "winter", "silent", "golden", "journey", "stone", "ocean",
+            "night", "forest", "machine", "memory", "crimson", "letters", "harbor", "glass", "storm", "kingdom",
+            "summer", "fire", "secret", "island", "mirror", "voyage", "paper", "north", "house", "light"};
+    static final String[] GENRES = {"Fantasy", "Science Fiction", "Classic", "Romance", "Mystery", "History", "Technology"};
+    static final int COPIES_PER_BOOK = 1000;
+
+    private static final int CHUNK = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    public ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(LibraryManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench_" + rows + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.password=",
+                        "--library.journal.dir=target/bench-journal-" + rows,
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.library.management=WARN");
+        seed(context.getBean(JdbcTemplate.class));
+        context.getBean(BookSearchIndexInitializer.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    static String words(SplittableRandom random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private void seed(JdbcTemplate jdbc) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Object[]> batch = new ArrayList<>(CHUNK);
+
+        for (int i = 1; i <= rows; i++) {
+            batch.add(new Object[]{"Patron " + words(random, 2), "patron" + i + "@example.com", "555-" + i,
+                    "patron" + i, "password", "BASIC", true});
+            flushIfFull(jdbc, batch, i, "INSERT INTO users (name, email, phone, username, password, " +
+                    "membership_type, active) VALUES (?, ?, ?, ?, ?, ?, ?)");
+        }
+
+        for (int i = 1; i <= rows; i++) {
+            batch.add(new Object[]{"The " + words(random, 3), "Author " + words(random, 1), String.format("%013d", i),
+                    Date.valueOf(LocalDate.of(1900 + random.nextInt(120), 1 + random.nextInt(12), 1)),
+                    words(random, 40), GENRES[random.nextInt(GENRES.length)], COPIES_PER_BOOK, COPIES_PER_BOOK});
+            flushIfFull(jdbc, batch, i, "INSERT INTO books (title, author, isbn, publication_date, description, " +
+                    "genre, total_copies, available_copies) VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+        }
+
+        LocalDate today = LocalDate.now();
+        for (int i = 1; i <= rows; i++) {
+            boolean open = random.nextBoolean();
+            LocalDate loanDate = today.minusDays(random.nextInt(60));
+            batch.add(new Object[]{1 + random.nextInt(rows), 1 + random.nextInt(rows), Date.valueOf(loanDate),
+                    Date.valueOf(loanDate.plusWeeks(2)),
+                    open ? null : Date.valueOf(loanDate.plusDays(random.nextInt(14))),
+                    open ? "BORROWED" : "RETURNED"});
+            flushIfFull(jdbc, batch, i, "INSERT INTO loans (user_id, book_id, loan_date, due_date, return_date, " +
+                    "status) VALUES (?, ?, ?, ?, ?, ?)");
+        }
+
+        // Keep the inventory and circulation counters consistent with the loans just inserted
+        jdbc.update("UPDATE books b SET available_copies = total_copies - " +
+                "(SELECT COUNT(*) FROM loans l WHERE l.book_id = b.id AND l.status = 'BORROWED'), " +
+                "active_loans = (SELECT COUNT(*) FROM loans l WHERE l.book_id = b.id AND l.status = 'BORROWED'), " +
+                "lifetime_borrows = (SELECT COUNT(*) FROM loans l WHERE l.book_id = b.id)");
+        jdbc.update("UPDATE users u SET " +
+                "active_loans = (SELECT COUNT(*) FROM loans l WHERE l.user_id = u.id AND l.status = 'BORROWED'), " +
+                "lifetime_borrows = (SELECT COUNT(*) FROM loans l WHERE l.user_id = u.id)");
+    }
+
+    private void flushIfFull(JdbcTemplate jdbc, List<Object[]> batch, int row, String sql) {
+        if (batch.size() == CHUNK || row == rows) {
+            jdbc.batchUpdate(sql, batch);
+            batch.clear();
+        }
+    }
+}
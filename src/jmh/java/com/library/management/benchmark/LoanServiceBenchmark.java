@@ -0,0 +1,38 @@
+package com.library.management.benchmark;
+
+import com.library.management.model.Loan;
+import com.library.management.service.LoanService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of the circulation hot path: borrow a random title and return it again.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class LoanServiceBenchmark {
+
+    @Benchmark
+    public Loan borrowAndReturn(LibraryFixture fixture) {
+        LoanService loanService = fixture.bean(LoanService.class);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long userId = 1 + random.nextInt(fixture.rows);
+        long bookId = 1 + random.nextInt(fixture.rows);
+        Loan loan = loanService.borrowBook(userId, bookId, null);
+        return loanService.returnBook(loan.getId());
+    }
+}
@@ -0,0 +1,161 @@
+package com.library.management.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.library.management.logging.LevelDiscardingAsyncAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logging cost of one borrow request and one read request, replaying the log calls the
+ * controller, service and Hibernate make. {@code legacy} is the previous setup (synchronous file
+ * appender, application DEBUG, formatted SQL at DEBUG and binds at TRACE); {@code production}
+ * is the prod profile (async non-blocking appender, application INFO, SQL sampling off).
+ * Runs against its own LoggerContext writing to a temp file, so console output is not measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n";
+
+    private static final String FORMATTED_UPDATE = """
+
+                update
+                    books
+                set
+                    available_copies=(available_copies-1)
+                where
+                    id=?
+                    and available_copies>0""";
+
+    private static final String FORMATTED_INSERT = """
+
+                insert
+                into
+                    loans
+                    (book_id, due_date, loan_date, notes, return_date, status, user_id, id)
+                values
+                    (?, ?, ?, ?, ?, ?, ?, default)""";
+
+    @Param({"legacy", "production"})
+    public String pipeline;
+
+    private LoggerContext context;
+    private Path logFile;
+
+    private Logger controllerLog;
+    private Logger serviceLog;
+    private Logger sqlLog;
+    private Logger binderLog;
+
+    @Setup(Level.Trial)
+    public void configure() throws IOException {
+        logFile = Files.createTempFile("logging-benchmark", ".log");
+        context = new LoggerContext();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(logFile.toString());
+        file.setEncoder(encoder);
+        file.start();
+
+        Appender<ILoggingEvent> appender = file;
+        boolean legacy = "legacy".equals(pipeline);
+        if (!legacy) {
+            LevelDiscardingAsyncAppender async = new LevelDiscardingAsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(1024);
+            async.setDiscardLevel("INFO");
+            async.setNeverBlock(true);
+            async.addAppender(file);
+            async.start();
+            appender = async;
+        }
+
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(ch.qos.logback.classic.Level.INFO);
+        root.addAppender(appender);
+
+        context.getLogger("com.library.management")
+                .setLevel(legacy ? ch.qos.logback.classic.Level.DEBUG : ch.qos.logback.classic.Level.INFO);
+        context.getLogger("org.hibernate.SQL")
+                .setLevel(legacy ? ch.qos.logback.classic.Level.DEBUG : ch.qos.logback.classic.Level.INFO);
+        context.getLogger("org.hibernate.type.descriptor.sql.BasicBinder")
+                .setLevel(legacy ? ch.qos.logback.classic.Level.TRACE : ch.qos.logback.classic.Level.INFO);
+
+        controllerLog = context.getLogger("com.library.management.controller.LoanController");
+        serviceLog = context.getLogger("com.library.management.service.LoanService");
+        sqlLog = context.getLogger("org.hibernate.SQL");
+        binderLog = context.getLogger("org.hibernate.type.descriptor.sql.BasicBinder");
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        context.stop();
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public void borrowRequest() {
+        long userId = 42L;
+        long bookId = 7L;
+        LocalDate dueDate = LocalDate.of(2025, 1, 14);
+
+        controllerLog.debug("REST request to borrow book: userID={}, bookID={}, dueDate={}", userId, bookId, dueDate);
+        serviceLog.info("Processing loan: User ID {} borrowing Book ID {}", userId, bookId);
+        statement(FORMATTED_UPDATE, bookId);
+        statement(FORMATTED_INSERT, bookId, dueDate, LocalDate.of(2025, 1, 1), null, null, "BORROWED", userId);
+        serviceLog.info("Book borrowed successfully: '{}' by user '{}'", "The Pragmatic Programmer", "jdoe");
+    }
+
+    @Benchmark
+    public void readRequest() {
+        long loanId = 1234L;
+
+        controllerLog.debug("REST request to get loan by ID: {}", loanId);
+        serviceLog.debug("Fetching loan summary with ID: {}", loanId);
+        statement("\n    select\n        l1_0.id, l1_0.loan_date, l1_0.due_date\n    from\n        loans l1_0\n    where\n        l1_0.id=?",
+                loanId);
+    }
+
+    private void statement(String sql, Object... binds) {
+        sqlLog.debug(sql);
+        for (int i = 0; i < binds.length; i++) {
+            binderLog.trace("binding parameter [{}] as [{}] - [{}]", i + 1, "VARCHAR", binds[i]);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.library.management.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.library.management.controller.FieldSelectionAdvice;
+import com.library.management.dto.LoanPage;
+import com.library.management.dto.LoanSummary;
+import com.library.management.model.Book;
+import com.library.management.model.Loan;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.LoanRepository;
+import com.library.management.service.LoanService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Wire size and encoding cost of the list payloads in their full, compact and normalized
+ * forms, optionally gzipped as the container does for clients that accept it. The bytes
+ * produced are counted in the {@code bytes} secondary result; divided by the operation
+ * count they give the size of one response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PayloadBenchmark {
+
+    @Param({"100", "1000"})
+    public int listSize;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private ObjectWriter fullWriter;
+    private ObjectWriter compactWriter;
+    private List<Book> books;
+    private List<Loan> loans;
+    private List<LoanSummary> summaries;
+    private LoanPage normalized;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public long bytes;
+    }
+
+    @Setup(Level.Trial)
+    public void load(LibraryFixture fixture) {
+        ObjectMapper objectMapper = fixture.bean(ObjectMapper.class);
+        fullWriter = objectMapper.writer();
+        compactWriter = objectMapper.writer(FieldSelectionAdvice.select("title,author,availableCopies"));
+        books = fixture.bean(BookRepository.class).findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(listSize));
+        loans = fixture.bean(TransactionTemplate.class).execute(status ->
+                fixture.bean(LoanRepository.class).findAllWithBookAndUserByIdIn(
+                        books.stream().map(Book::getId).toList()));
+        LoanService loanService = fixture.bean(LoanService.class);
+        summaries = loanService.getLoanSummariesPage(null, listSize);
+        normalized = loanService.getNormalizedLoansPage(null, listSize);
+    }
+
+    @Benchmark
+    public byte[] fullBooks(Size size) throws IOException {
+        return encode(fullWriter, books, size);
+    }
+
+    @Benchmark
+    public byte[] compactBooks(Size size) throws IOException {
+        return encode(compactWriter, books, size);
+    }
+
+    @Benchmark
+    public byte[] fullLoans(Size size) throws IOException {
+        return encode(fullWriter, loans, size);
+    }
+
+    @Benchmark
+    public byte[] summaryLoans(Size size) throws IOException {
+        return encode(fullWriter, summaries, size);
+    }
+
+    @Benchmark
+    public byte[] normalizedLoans(Size size) throws IOException {
+        return encode(fullWriter, normalized, size);
+    }
+
+    @Benchmark
+    public byte[] normalizedCompactLoans(Size size) throws IOException {
+        return encode(compactWriter, normalized, size);
+    }
+
+    private byte[] encode(ObjectWriter writer, Object payload, Size size) throws IOException {
+        byte[] json = writer.writeValueAsBytes(payload);
+        if (gzip) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+                out.write(json);
+            }
+            json = buffer.toByteArray();
+        }
+        size.bytes += json.length;
+        return json;
+    }
+}
@@ -0,0 +1,94 @@
+package com.library.management.benchmark;
+
+import com.library.management.model.Book;
+import com.library.management.model.User;
+import com.library.management.service.BookService;
+import com.library.management.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the list and search read paths in a read-only session (the services' own
+ * transactions) versus an enclosing read-write one, which snapshots every loaded entity for
+ * dirty checking. Run with {@code -prof gc} to get the allocation per request
+ * ({@code gc.alloc.rate.norm}), e.g. {@code -Djmh.args="ReadPathBenchmark -p rows=100000 -prof gc"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ReadPathBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"readOnly", "readWrite"})
+    public String session;
+
+    private BookService bookService;
+    private UserService userService;
+    private TransactionTemplate transaction;
+    private int rows;
+    private String[] queries;
+
+    @Setup(Level.Trial)
+    public void setUp(LibraryFixture fixture) {
+        bookService = fixture.bean(BookService.class);
+        userService = fixture.bean(UserService.class);
+        transaction = new TransactionTemplate(fixture.bean(PlatformTransactionManager.class));
+        transaction.setReadOnly("readOnly".equals(session));
+        rows = fixture.rows;
+
+        SplittableRandom random = new SplittableRandom(11);
+        queries = new String[256];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = LibraryFixture.words(random, 2);
+        }
+    }
+
+    @Benchmark
+    public List<Book> listBooks(Cursor cursor) {
+        return transaction.execute(status -> bookService.getBooksPage(cursor.next(rows), PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<User> listUsers(Cursor cursor) {
+        return transaction.execute(status -> userService.getUsersPage(cursor.next(rows), PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<Book> searchBooks(Cursor cursor) {
+        return transaction.execute(status -> bookService.searchBooks(queries[cursor.nextQuery(queries.length)], 20)
+                .getResults());
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private final SplittableRandom random = new SplittableRandom(7);
+
+        long next(int rows) {
+            return random.nextInt(Math.max(1, rows - PAGE_SIZE));
+        }
+
+        int nextQuery(int count) {
+            return random.nextInt(count);
+        }
+    }
+}
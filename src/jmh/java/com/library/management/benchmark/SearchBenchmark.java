@@ -0,0 +1,57 @@
+package com.library.management.benchmark;
+
+import com.library.management.model.Book;
+import com.library.management.model.User;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.UserRepository;
+import com.library.management.service.BookService;
+import com.library.management.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the LIKE-scan repository searches with the in-memory search index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    // The last keyword is misspelled: only the user index corrects it
+    @Param({"garden", "silent st", "patron 4213", "slient"})
+    public String keyword;
+
+    @Benchmark
+    public List<Book> bookRepositorySearch(LibraryFixture fixture) {
+        return fixture.bean(BookRepository.class).searchBooks(keyword);
+    }
+
+    @Benchmark
+    public List<Book> bookIndexSearch(LibraryFixture fixture) {
+        return fixture.bean(BookService.class).searchBooks(keyword, 50).getResults();
+    }
+
+    @Benchmark
+    public List<User> userRepositorySearch(LibraryFixture fixture) {
+        return fixture.bean(UserRepository.class).searchUsers(keyword);
+    }
+
+    @Benchmark
+    public List<User> userIndexSearch(LibraryFixture fixture) {
+        return fixture.bean(UserService.class).searchUsers(keyword, 50);
+    }
+}
@@ -0,0 +1,64 @@
+package com.library.management.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.model.Book;
+import com.library.management.model.Loan;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.LoanRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization cost of the Book and Loan list payloads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"100", "1000"})
+    public int listSize;
+
+    private ObjectMapper objectMapper;
+    private List<Book> books;
+    private List<Loan> loans;
+
+    @Setup(Level.Trial)
+    public void load(LibraryFixture fixture) {
+        objectMapper = fixture.bean(ObjectMapper.class);
+        books = fixture.bean(BookRepository.class).findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(listSize));
+        // Entities are serialized after the transaction, as in a controller response
+        loans = fixture.bean(TransactionTemplate.class).execute(status ->
+                fixture.bean(LoanRepository.class).findAllWithBookAndUserByIdIn(
+                        books.stream().map(Book::getId).toList()));
+    }
+
+    @Benchmark
+    public byte[] serializeBooks() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] serializeLoans() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(loans);
+    }
+}
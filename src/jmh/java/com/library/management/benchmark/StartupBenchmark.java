@@ -0,0 +1,121 @@
+package com.library.management.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to first request: launches the packaged application in a fresh JVM and measures until
+ * {@code GET /api/books} first answers 200. Uses the layout built by the fast-startup profile,
+ * so run it as {@code ./mvnw -Pfast-startup,benchmarks verify -DskipTests -Djmh.args="StartupBenchmark"}.
+ * <ul>
+ *     <li>{@code default}: default profile, eager initialization</li>
+ *     <li>{@code prod}: prod profile (lazy initialization, async logging)</li>
+ *     <li>{@code prod-aot-cds}: prod profile with the AOT-generated context and the AppCDS archive</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    private static final Path STARTUP_DIR = Paths.get("target", "startup");
+
+    @Param({"default", "prod", "prod-aot-cds"})
+    public String mode;
+
+    @Benchmark
+    public int timeToFirstRequest() throws Exception {
+        int port = freePort();
+        Process process = new ProcessBuilder(command(port))
+                .directory(STARTUP_DIR.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            return awaitFirstResponse(port, process);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private List<String> command(int port) throws IOException {
+        Path jar = STARTUP_DIR.resolve("library.jar");
+        if (!Files.exists(jar)) {
+            throw new IllegalStateException(jar + " not found; build with -Pfast-startup");
+        }
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        if (mode.equals("prod-aot-cds")) {
+            command.add("-XX:SharedArchiveFile=application.jsa");
+            command.add("-Dspring.aot.enabled=true");
+        }
+        if (mode.startsWith("prod")) {
+            command.add("-Dspring.profiles.active=prod");
+        }
+        command.add("-jar");
+        command.add("library.jar");
+        command.add("--server.port=" + port);
+        command.add("--management.server.port=-1");
+        command.add("--spring.datasource.url=jdbc:h2:mem:startup");
+        command.add("--library.journal.dir=" + Files.createTempDirectory("startup-journal"));
+        return command;
+    }
+
+    private static int awaitFirstResponse(int port, Process process) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/books?limit=1"))
+                .GET().build();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with code " + process.exitValue());
+            }
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return response.statusCode();
+                }
+            } catch (ConnectException e) {
+                // Not listening yet
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("No response within two minutes");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
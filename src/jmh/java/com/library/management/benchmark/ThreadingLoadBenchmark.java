@@ -0,0 +1,115 @@
+package com.library.management.benchmark;
+
+import com.library.management.LibraryManagementApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP load test of the running server with platform versus virtual request threads:
+ * 400 concurrent clients (twice the default Tomcat worker count) issuing single-loan and per-user
+ * loan reads over the loopback interface. Throughput and the SampleTime percentiles (p99)
+ * are reported per mode. The virtual mode needs a Java 21 runtime:
+ * {@code ./mvnw -Pbenchmarks,java21 verify -DskipTests -Djmh.args="ThreadingLoadBenchmark"}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(400)
+@State(Scope.Benchmark)
+public class ThreadingLoadBenchmark {
+
+    private static final int LOANS = 10_000;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(LibraryManagementApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:bench_threading_" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.password=",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--management.server.port=-1",
+                        "--spring.datasource.hikari.maximum-pool-size=20",
+                        "--library.journal.dir=target/bench-journal-threading",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.library.management=WARN");
+        seed(context.getBean(JdbcTemplate.class));
+
+        baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public int loanRead() throws IOException, InterruptedException {
+        return get("/api/loans/" + (1 + ThreadLocalRandom.current().nextInt(LOANS)));
+    }
+
+    @Benchmark
+    public int userLoansRead() throws IOException, InterruptedException {
+        return get("/api/loans/user/" + (1 + ThreadLocalRandom.current().nextInt(LOANS)));
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static void seed(JdbcTemplate jdbc) {
+        List<Object[]> users = new ArrayList<>(LOANS);
+        List<Object[]> books = new ArrayList<>(LOANS);
+        List<Object[]> loans = new ArrayList<>(LOANS);
+        LocalDate today = LocalDate.now();
+        for (int i = 1; i <= LOANS; i++) {
+            users.add(new Object[]{"Patron " + i, "patron" + i + "@example.com", "patron" + i});
+            books.add(new Object[]{"Book " + i, String.format("%013d", i)});
+            loans.add(new Object[]{i, i, today, today.plusWeeks(2)});
+        }
+        jdbc.batchUpdate("INSERT INTO users (name, email, username, password, membership_type, active) " +
+                "VALUES (?, ?, ?, 'password', 'BASIC', TRUE)", users);
+        jdbc.batchUpdate("INSERT INTO books (title, author, isbn, publication_date, genre, total_copies, available_copies) " +
+                "VALUES (?, 'Author', ?, DATE '2000-01-01', 'Technology', 2, 1)", books);
+        jdbc.batchUpdate("INSERT INTO loans (user_id, book_id, loan_date, due_date, status) " +
+                "VALUES (?, ?, ?, ?, 'BORROWED')", loans);
+    }
+}
@@ -0,0 +1,43 @@
+package com.library.management.catalog;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Locale;
+
+public enum CatalogFormat {
+    CSV {
+        @Override
+        public CatalogReader open(InputStream in) throws IOException {
+            return new CsvCatalogReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    },
+    MARC {
+        @Override
+        public CatalogReader open(InputStream in) {
+            return new MarcCatalogReader(new BufferedInputStream(in));
+        }
+    };
+
+    /**
+     * Opens a reader over the feed; a CSV header is read and checked right away.
+     */
+    public abstract CatalogReader open(InputStream in) throws IOException;
+
+    public static CatalogFormat of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported catalog format: " + name);
+        }
+    }
+
+    // ISO 2709 files conventionally end in .mrc or .marc
+    public static CatalogFormat forFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".mrc") || name.endsWith(".marc") ? MARC : CSV;
+    }
+}
@@ -0,0 +1,73 @@
+package com.library.management.catalog;
+
+import com.library.management.dto.ImportEvent;
+import com.library.management.service.CatalogImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command-line catalog import: starting the application with {@code --library.import.file=<feed>}
+ * imports the feed, logs the report and exits (status 0 if every record was imported, 2 if some
+ * were rejected). For example:
+ * {@code java -jar library.jar --spring.main.web-application-type=none --library.import.file=feed.mrc}.
+ * The format follows the file extension unless {@code library.import.format} is set.
+ * <p>
+ * The runner is always registered and checks the property when it runs, rather than being
+ * conditional, so an AOT-processed build still honours it.
+ */
+@Component
+@Slf4j
+public class CatalogImportRunner implements ApplicationRunner {
+
+    private final CatalogImportService catalogImportService;
+    private final ConfigurableApplicationContext context;
+    private final String file;
+    private final String format;
+
+    public CatalogImportRunner(CatalogImportService catalogImportService, ConfigurableApplicationContext context,
+                               @Value("${library.import.file:}") String file,
+                               @Value("${library.import.format:}") String format) {
+        this.catalogImportService = catalogImportService;
+        this.context = context;
+        this.file = file;
+        this.format = format;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (file.isBlank()) {
+            return;
+        }
+        Path feed = Paths.get(file);
+        CatalogFormat catalogFormat = format.isBlank() ? CatalogFormat.forFile(feed) : CatalogFormat.of(format);
+        log.info("Importing {} catalog feed {}", catalogFormat, feed);
+
+        ImportEvent summary;
+        try (InputStream in = Files.newInputStream(feed); CatalogReader reader = catalogFormat.open(in)) {
+            summary = catalogImportService.importCatalog(reader, null, CatalogImportRunner::report);
+        }
+        int exitCode = summary.getRejected() == 0 ? 0 : 2;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    private static void report(ImportEvent event) {
+        switch (event.getType()) {
+            case ERROR -> log.warn("Record {} rejected (ISBN {}): {}", event.getPosition(), event.getIsbn(),
+                    event.getMessage());
+            case PROGRESS -> log.info("Imported {} of {} records read ({} rejected)", event.getUpserted(),
+                    event.getRead(), event.getRejected());
+            case SUMMARY -> log.info("Import complete: {} records read, {} upserted, {} rejected",
+                    event.getRead(), event.getUpserted(), event.getRejected());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.library.management.catalog;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Pulls records from a feed one at a time, so an import holds a single record in memory.
+ */
+public interface CatalogReader extends Closeable {
+
+    /**
+     * Returns the next record, or null at the end of the feed.
+     *
+     * @throws IllegalArgumentException if this record is malformed; the reader has
+     *                                  skipped it and can continue with the next one
+     * @throws IOException              if the feed cannot be read any further
+     */
+    CatalogRecord next() throws IOException;
+
+    /**
+     * Number of the record last returned or rejected, counting from 1.
+     */
+    long position();
+}
@@ -0,0 +1,26 @@
+package com.library.management.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * One title from an acquisitions feed, as parsed; validated by the import before it is upserted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogRecord {
+    private String isbn;
+    private String title;
+    private String author;
+    private LocalDate publicationDate;
+    private String genre;
+    private String description;
+    // Copies held; replaces the total when the ISBN is already catalogued
+    private int copies;
+}
@@ -0,0 +1,147 @@
+package com.library.management.catalog;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads an RFC 4180 CSV feed with a header row. Columns are matched by name, case-insensitively
+ * and ignoring underscores: {@code isbn}, {@code title}, {@code author}, {@code publication_date}
+ * (ISO date), {@code genre}, and optionally {@code description} and {@code copies} (default 1).
+ * Quoted fields may contain commas, quotes ({@code ""}) and line breaks.
+ */
+public class CsvCatalogReader implements CatalogReader {
+
+    private static final List<String> REQUIRED = List.of("isbn", "title", "author", "publicationdate", "genre");
+
+    private final BufferedReader in;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private long position;
+
+    public CsvCatalogReader(Reader in) throws IOException {
+        this.in = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in);
+        if (!readRecord()) {
+            throw new IllegalArgumentException("CSV feed is empty");
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            columns.put(fields.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = REQUIRED.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header is missing columns: " + missing);
+        }
+    }
+
+    @Override
+    public CatalogRecord next() throws IOException {
+        do {
+            if (!readRecord()) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isBlank());
+        position++;
+
+        String copies = value("copies");
+        return CatalogRecord.builder()
+                .isbn(value("isbn"))
+                .title(value("title"))
+                .author(value("author"))
+                .publicationDate(parseDate(value("publicationdate")))
+                .genre(value("genre"))
+                .description(value("description"))
+                .copies(copies == null ? 1 : parseCopies(copies))
+                .build();
+    }
+
+    @Override
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // Trimmed value of the column in the current record; null if absent or blank
+    private String value(String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid publication date: " + value);
+        }
+    }
+
+    private static int parseCopies(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid copies: " + value);
+        }
+    }
+
+    /**
+     * Reads the next record into {@link #fields}; false at the end of the input.
+     */
+    private boolean readRecord() throws IOException {
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean any = false;
+        int c;
+        while ((c = in.read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    in.mark(1);
+                    if (in.read() == '"') {
+                        field.append('"');
+                    } else {
+                        in.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (!any) {
+            return false;
+        }
+        if (quoted) {
+            throw new IOException("Unterminated quoted field after record " + position);
+        }
+        fields.add(field.toString());
+        return true;
+    }
+}
@@ -0,0 +1,193 @@
+package com.library.management.catalog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads MARC 21 bibliographic records in ISO 2709 transmission format, one record at a time
+ * using the length in each leader. Fields used:
+ * <ul>
+ *     <li>020 $a: ISBN (first one, qualifiers such as "(pbk.)" dropped)</li>
+ *     <li>100 $a, else 110 $a or 700 $a: author</li>
+ *     <li>245 $a $b: title</li>
+ *     <li>264 $c, else 260 $c: publication year (stored as 1 January)</li>
+ *     <li>520 $a: description</li>
+ *     <li>650 $a: genre ("General" if absent)</li>
+ * </ul>
+ * Bibliographic records carry no holdings, so every record counts as one copy.
+ * Records flagged as Unicode (leader/09 = 'a') are decoded as UTF-8, others as Latin-1.
+ */
+public class MarcCatalogReader implements CatalogReader {
+
+    private static final int LEADER_LENGTH = 24;
+    private static final int DIRECTORY_ENTRY_LENGTH = 12;
+    private static final byte FIELD_TERMINATOR = 0x1E;
+    private static final byte SUBFIELD_DELIMITER = 0x1F;
+    private static final String DEFAULT_GENRE = "General";
+    private static final Pattern YEAR = Pattern.compile("\\d{4}");
+
+    private final InputStream in;
+    private long position;
+
+    public MarcCatalogReader(InputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public CatalogRecord next() throws IOException {
+        int first = skipLineBreaks();
+        if (first == -1) {
+            return null;
+        }
+        byte[] leader = new byte[LEADER_LENGTH];
+        leader[0] = (byte) first;
+        if (in.readNBytes(leader, 1, LEADER_LENGTH - 1) < LEADER_LENGTH - 1) {
+            throw new IOException("Truncated MARC leader after record " + position);
+        }
+        // Without a valid length there is no way to find the next record
+        int length = digits(leader, 0, 5);
+        int base = digits(leader, 12, 5);
+        if (length <= LEADER_LENGTH || base <= LEADER_LENGTH || base > length) {
+            throw new IOException("Malformed MARC leader after record " + position);
+        }
+        byte[] record = new byte[length];
+        System.arraycopy(leader, 0, record, 0, LEADER_LENGTH);
+        if (in.readNBytes(record, LEADER_LENGTH, length - LEADER_LENGTH) < length - LEADER_LENGTH) {
+            throw new IOException("Truncated MARC record after record " + position);
+        }
+        position++;
+        return parse(record, base, leader[9] == 'a' ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private CatalogRecord parse(byte[] record, int base, Charset charset) {
+        String isbn = null;
+        String author = null;
+        String fallbackAuthor = null;
+        String title = null;
+        String year264 = null;
+        String year260 = null;
+        String description = null;
+        String genre = null;
+
+        for (int entry = LEADER_LENGTH; entry + DIRECTORY_ENTRY_LENGTH < base; entry += DIRECTORY_ENTRY_LENGTH) {
+            String tag = new String(record, entry, 3, StandardCharsets.US_ASCII);
+            int fieldLength = digits(record, entry + 3, 4);
+            int start = base + digits(record, entry + 7, 5);
+            if (fieldLength < 0 || start < base || start + fieldLength > record.length) {
+                throw new IllegalArgumentException("Malformed MARC directory entry for tag " + tag);
+            }
+            // Control fields (00X) have no indicators or subfields
+            if (tag.startsWith("00") || fieldLength < 3) {
+                continue;
+            }
+            switch (tag) {
+                case "020" -> isbn = first(isbn, isbn(subfield(record, start, fieldLength, 'a', charset)));
+                case "100" -> author = first(author, subfield(record, start, fieldLength, 'a', charset));
+                case "110", "700" -> fallbackAuthor = first(fallbackAuthor, subfield(record, start, fieldLength, 'a', charset));
+                case "245" -> title = first(title, join(subfield(record, start, fieldLength, 'a', charset),
+                        subfield(record, start, fieldLength, 'b', charset)));
+                case "264" -> year264 = first(year264, subfield(record, start, fieldLength, 'c', charset));
+                case "260" -> year260 = first(year260, subfield(record, start, fieldLength, 'c', charset));
+                case "520" -> description = first(description, subfield(record, start, fieldLength, 'a', charset));
+                case "650" -> genre = first(genre, subfield(record, start, fieldLength, 'a', charset));
+                default -> {
+                }
+            }
+        }
+
+        return CatalogRecord.builder()
+                .isbn(isbn)
+                .title(trimPunctuation(title))
+                .author(trimPunctuation(author != null ? author : fallbackAuthor))
+                .publicationDate(year(year264 != null ? year264 : year260))
+                .genre(genre != null ? trimPunctuation(genre) : DEFAULT_GENRE)
+                .description(description)
+                .copies(1)
+                .build();
+    }
+
+    // First occurrence of the subfield in a data field, after its two indicators
+    private static String subfield(byte[] record, int start, int length, char code, Charset charset) {
+        int end = start + length;
+        if (record[end - 1] == FIELD_TERMINATOR) {
+            end--;
+        }
+        for (int i = start + 2; i < end - 1; i++) {
+            if (record[i] == SUBFIELD_DELIMITER && record[i + 1] == code) {
+                int valueStart = i + 2;
+                int valueEnd = valueStart;
+                while (valueEnd < end && record[valueEnd] != SUBFIELD_DELIMITER) {
+                    valueEnd++;
+                }
+                String value = new String(record, valueStart, valueEnd - valueStart, charset).trim();
+                return value.isEmpty() ? null : value;
+            }
+        }
+        return null;
+    }
+
+    private static String isbn(String value) {
+        return value == null ? null : value.split("\\s+", 2)[0];
+    }
+
+    private static LocalDate year(String value) {
+        if (value == null) {
+            return null;
+        }
+        Matcher matcher = YEAR.matcher(value);
+        return matcher.find() ? LocalDate.of(Integer.parseInt(matcher.group()), 1, 1) : null;
+    }
+
+    private static String join(String a, String b) {
+        return b == null ? a : a == null ? b : trimPunctuation(a) + ": " + b;
+    }
+
+    // Strips the trailing ISBD punctuation (" /", " :", ",", ".") cataloguers end subfields with
+    private static String trimPunctuation(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.replaceAll("[\\s/:;,.]+$", "");
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static String first(String current, String candidate) {
+        return current != null ? current : candidate;
+    }
+
+    // Non-negative decimal number in the given bytes, or -1 if any is not a digit
+    private static int digits(byte[] bytes, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            if (bytes[i] < '0' || bytes[i] > '9') {
+                return -1;
+            }
+            value = value * 10 + (bytes[i] - '0');
+        }
+        return value;
+    }
+
+    // Some exports put a line break between records
+    private int skipLineBreaks() throws IOException {
+        int b;
+        do {
+            b = in.read();
+        } while (b == '\n' || b == '\r');
+        return b;
+    }
+}
@@ -0,0 +1,32 @@
+package com.library.management.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BOOKS = "books";
+    public static final String BOOKS_BY_ISBN = "booksByIsbn";
+    public static final String USERS = "users";
+    public static final String USERS_BY_USERNAME = "usersByUsername";
+
+    /**
+     * Bounded Caffeine caches (size and TTL from library.cache.spec, with hit/miss/eviction
+     * statistics). Evictions issued inside a transaction are applied only after it commits,
+     * so a concurrent reader cannot re-cache the pre-commit state.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${library.cache.spec:maximumSize=10000,expireAfterWrite=10m,recordStats}") String spec) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(BOOKS, BOOKS_BY_ISBN, USERS, USERS_BY_USERNAME);
+        caffeineCacheManager.setCacheSpecification(spec);
+        caffeineCacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
@@ -0,0 +1,27 @@
+package com.library.management.config;
+
+import com.library.management.logging.SqlSampler;
+import com.library.management.metrics.SqlStatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateConfig {
+
+    /**
+     * Routes every statement Hibernate prepares through the SQL sampler and the per-request
+     * statement counter; each costs a level check or a thread-local increment.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(
+            @Value("${library.logging.sql-sample-rate:0.01}") double sampleRate,
+            SqlStatementCounter sqlStatementCounter) {
+        SqlSampler sqlSampler = new SqlSampler(sampleRate);
+        StatementInspector inspector = sql -> sqlStatementCounter.inspect(sqlSampler.inspect(sql));
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+}
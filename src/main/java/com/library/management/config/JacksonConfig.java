@@ -0,0 +1,19 @@
+package com.library.management.config;
+
+import com.library.management.controller.FieldSelectionAdvice;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Books and users name a Jackson filter for fields= selection; every other serialization
+     * (exports, NDJSON streams, pushes) resolves it to "all properties".
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldSelectionDefault() {
+        return builder -> builder.filters(FieldSelectionAdvice.ALL_FIELDS);
+    }
+}
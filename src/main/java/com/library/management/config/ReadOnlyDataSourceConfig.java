@@ -0,0 +1,64 @@
+package com.library.management.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.lang.Nullable;
+
+import javax.sql.DataSource;
+
+/**
+ * Optional split of the connection pool: transactions marked {@code readOnly} (every GET path
+ * in the services) borrow from a separate read-only pool, so list and search traffic cannot
+ * starve borrow/return writes of connections. The lazy proxy defers choosing a pool until
+ * the first statement, by which time the transaction has flagged the connection read-only.
+ * <p>
+ * The split is decided when the context starts, not by a condition: AOT processing (the
+ * fast-startup build) evaluates conditions once at build time, which would fix the choice in
+ * the generated code. Without the split there is no read-only pool bean at all, so health
+ * checks and pool metrics never start one.
+ */
+@Configuration
+public class ReadOnlyDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource readWriteDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("library-read-write");
+        return dataSource;
+    }
+
+    // Same database unless library.datasource.read-only.hikari.jdbc-url points elsewhere.
+    // Bound by hand: a null bean cannot carry @ConfigurationProperties.
+    @Bean
+    public HikariDataSource readOnlyDataSource(DataSourceProperties properties, Environment environment,
+                                               @Value("${library.datasource.read-only.enabled:false}") boolean enabled) {
+        if (!enabled) {
+            return null;
+        }
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("library.datasource.read-only.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName("library-read-only");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource readWriteDataSource, @Nullable HikariDataSource readOnlyDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(readWriteDataSource);
+        if (readOnlyDataSource != null) {
+            dataSource.setReadOnlyDataSource(readOnlyDataSource);
+        }
+        return dataSource;
+    }
+}
@@ -1,12 +1,20 @@
 package com.library.management.config;
 
+import com.library.management.metrics.SqlStatementCounter;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final SqlStatementCounter sqlStatementCounter;
+
+    public WebConfig(SqlStatementCounter sqlStatementCounter) {
+        this.sqlStatementCounter = sqlStatementCounter;
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
@@ -15,4 +23,9 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedHeaders("*")
                 .allowCredentials(true);
     }
-}
\ No newline at end of file
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sqlStatementCounter).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,36 @@
+package com.library.management.controller;
+
+import com.library.management.push.AvailabilityBroadcaster;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/availability")
+@CrossOrigin(origins = "http://localhost:3000")
+@Slf4j
+public class AvailabilityController {
+
+    private final AvailabilityBroadcaster availabilityBroadcaster;
+
+    @Autowired
+    public AvailabilityController(AvailabilityBroadcaster availabilityBroadcaster) {
+        this.availabilityBroadcaster = availabilityBroadcaster;
+    }
+
+    /**
+     * Server-sent events for shelf availability ("availability") and loan ("loan") changes,
+     * optionally limited to some books and users. Replaces polling the book and loan endpoints.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestParam(required = false) List<Long> bookId,
+                                @RequestParam(required = false) List<Long> userId) {
+        log.debug("REST request to subscribe to availability events: bookIDs={}, userIDs={}", bookId, userId);
+        return availabilityBroadcaster.subscribe(bookId == null ? List.of() : bookId,
+                userId == null ? List.of() : userId);
+    }
+}
@@ -1,14 +1,26 @@
 package com.library.management.controller;
 
+import com.library.management.catalog.CatalogFormat;
+import com.library.management.catalog.CatalogReader;
+import com.library.management.dto.ImportEvent;
+import com.library.management.dto.ResourceVersion;
 import com.library.management.model.Book;
+import com.library.management.search.SearchHits;
 import com.library.management.service.BookService;
+import com.library.management.service.CatalogImportService;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
@@ -17,41 +29,108 @@ import java.util.List;
 @Slf4j
 public class BookController {
 
+    // Set on search responses whose last token matched more prefixes than the index expands
+    public static final String SEARCH_TRUNCATED_HEADER = "X-Search-Truncated";
+
+    private static final List<String> BOOK_EXPORT_COLUMNS = List.of("id", "isbn", "title", "author",
+            "publicationDate", "genre", "totalCopies", "availableCopies", "activeLoans", "lifetimeBorrows",
+            "overdueLoans");
+
     private final BookService bookService;
+    private final KeysetPagination pagination;
+    private final NdjsonStreamer ndjsonStreamer;
+    private final CatalogImportService catalogImportService;
+    private final ExportStreamer exportStreamer;
+    private final ConditionalGet conditionalGet;
 
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, KeysetPagination pagination, NdjsonStreamer ndjsonStreamer,
+                          CatalogImportService catalogImportService, ExportStreamer exportStreamer,
+                          ConditionalGet conditionalGet) {
         this.bookService = bookService;
+        this.catalogImportService = catalogImportService;
+        this.pagination = pagination;
+        this.ndjsonStreamer = ndjsonStreamer;
+        this.exportStreamer = exportStreamer;
+        this.conditionalGet = conditionalGet;
     }
 
     @GetMapping
-    public ResponseEntity<List<Book>> getAllBooks() {
-        log.debug("REST request to get all books");
-        return ResponseEntity.ok(bookService.getAllBooks());
+    public ResponseEntity<List<Book>> getAllBooks(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader HttpHeaders headers) {
+        log.debug("REST request to get books after ID: {} (limit {})", after, limit);
+        int pageSize = pagination.resolveLimit(limit);
+        return conditionalGet.collection(headers, bookService.getCatalogVersion(),
+                () -> pagination.page(bookService.getBooksPage(after, pageSize), pageSize, Book::getId));
+    }
+
+    @GetMapping(value = "/stream", produces = NdjsonStreamer.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBooks() {
+        log.debug("REST request to stream all books");
+        return ndjsonStreamer.stream(bookService::streamAllBooks);
+    }
+
+    /**
+     * Report export of the catalog as CSV or NDJSON, gzip-compressed if the client accepts it,
+     * optionally restricted to one genre.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String genre,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.debug("REST request to export books: format={}, genre={}", format, genre);
+        ExportFormat exportFormat = ExportFormat.of(format);
+        String genreFilter = genre == null || genre.isBlank() ? null : genre;
+        return exportStreamer.<Book>export("books", exportFormat, ExportStreamer.acceptsGzip(acceptEncoding),
+                BOOK_EXPORT_COLUMNS, book -> Arrays.asList(book.getId(), book.getIsbn(), book.getTitle(),
+                        book.getAuthor(), book.getPublicationDate(), book.getGenre(), book.getTotalCopies(),
+                        book.getAvailableCopies(), book.getActiveLoans(), book.getLifetimeBorrows(),
+                        book.getOverdueLoans()),
+                consumer -> bookService.exportBooks(genreFilter, consumer));
     }
 
     @GetMapping("/available")
-    public ResponseEntity<List<Book>> getAvailableBooks() {
+    public ResponseEntity<List<Book>> getAvailableBooks(@RequestHeader HttpHeaders headers) {
         log.debug("REST request to get all available books");
-        return ResponseEntity.ok(bookService.getAvailableBooks());
+        return conditionalGet.collection(headers, bookService.getCatalogVersion(),
+                () -> ResponseEntity.ok(bookService.getAvailableBooks()));
     }
 
+    /**
+     * Answers If-None-Match / If-Modified-Since with 304 from the book's version alone.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable Long id) {
+    public ResponseEntity<Book> getBookById(@PathVariable Long id, @RequestHeader HttpHeaders headers) {
         log.debug("REST request to get book by ID: {}", id);
-        return ResponseEntity.ok(bookService.getBookById(id));
+        return conditionalGet.entity(headers, () -> bookService.getBookVersion(id),
+                () -> bookService.getBookById(id), ResourceVersion::of);
     }
 
     @GetMapping("/isbn/{isbn}")
-    public ResponseEntity<Book> getBookByIsbn(@PathVariable String isbn) {
+    public ResponseEntity<Book> getBookByIsbn(@PathVariable String isbn, @RequestHeader HttpHeaders headers) {
         log.debug("REST request to get book by ISBN: {}", isbn);
-        return ResponseEntity.ok(bookService.getBookByIsbn(isbn));
+        return conditionalGet.entity(headers, () -> bookService.getBookVersionByIsbn(isbn),
+                () -> bookService.getBookByIsbn(isbn), ResourceVersion::of);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Book>> searchBooks(@RequestParam String keyword) {
+    public ResponseEntity<List<Book>> searchBooks(
+            @RequestParam String keyword,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader HttpHeaders headers) {
         log.debug("REST request to search books with keyword: {}", keyword);
-        return ResponseEntity.ok(bookService.searchBooks(keyword));
+        int resultLimit = pagination.resolveLimit(limit);
+        return conditionalGet.collection(headers, bookService.getCatalogVersion(), () -> {
+            SearchHits<Book> hits = bookService.searchBooks(keyword, resultLimit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (hits.isTruncated()) {
+                response.header(SEARCH_TRUNCATED_HEADER, "true");
+            }
+            return response.body(hits.getResults());
+        });
     }
 
     @PostMapping
@@ -60,6 +139,28 @@ public class BookController {
         return ResponseEntity.status(HttpStatus.CREATED).body(bookService.createBook(book));
     }
 
+    /**
+     * Streams a CSV or MARC acquisitions feed from the request body into the catalog and
+     * answers with an NDJSON report: one line per rejected record, one per committed batch,
+     * and a final summary. The format and commit size are checked before the import starts.
+     */
+    @PostMapping(value = "/import", produces = NdjsonStreamer.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importBooks(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Integer commitSize,
+            InputStream body) throws IOException {
+        log.debug("REST request to import a {} catalog feed", format);
+        int batchSize = catalogImportService.resolveCommitSize(commitSize);
+        CatalogReader reader = CatalogFormat.of(format).open(body);
+        return ndjsonStreamer.<ImportEvent>stream(listener -> {
+            try (reader) {
+                catalogImportService.importCatalog(reader, batchSize, listener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Book> updateBook(@PathVariable Long id, @Valid @RequestBody Book book) {
         log.debug("REST request to update book with ID: {}", id);
@@ -0,0 +1,80 @@
+package com.library.management.controller;
+
+import com.library.management.dto.ResourceVersion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GETs: responses carry a strong ETag and Last-Modified, and requests with
+ * {@code If-None-Match} / {@code If-Modified-Since} are answered with 304 when the version
+ * still matches, without loading or serializing the body. If-None-Match takes precedence.
+ */
+@Component
+public class ConditionalGet {
+
+    /**
+     * One entity. The version lookup only runs for conditional requests; the validators sent
+     * with a body are always taken from that body, so a stale cached entity is never tagged
+     * with a newer version.
+     */
+    public <T> ResponseEntity<T> entity(HttpHeaders request, Supplier<ResourceVersion> version, Supplier<T> body,
+                                        Function<T, ResourceVersion> versionOf) {
+        if (isConditional(request)) {
+            ResourceVersion current = version.get();
+            if (matches(request, current)) {
+                return notModified(current);
+            }
+        }
+        T entity = body.get();
+        return withValidators(ResponseEntity.ok(entity), versionOf.apply(entity));
+    }
+
+    /**
+     * A list, validated against the version of the whole collection. The version is read
+     * before the list, so the list is never older than the version it is tagged with.
+     */
+    public <T> ResponseEntity<T> collection(HttpHeaders request, ResourceVersion version,
+                                            Supplier<ResponseEntity<T>> response) {
+        if (isConditional(request) && matches(request, version)) {
+            return notModified(version);
+        }
+        return withValidators(response.get(), version);
+    }
+
+    private static boolean isConditional(HttpHeaders request) {
+        return request.containsKey(HttpHeaders.IF_NONE_MATCH) || request.containsKey(HttpHeaders.IF_MODIFIED_SINCE);
+    }
+
+    private static boolean matches(HttpHeaders request, ResourceVersion version) {
+        List<String> ifNoneMatch = request.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            // Weak comparison, as RFC 9110 prescribes for If-None-Match
+            String etag = "\"" + version.getTag() + "\"";
+            return ifNoneMatch.stream().anyMatch(tag -> tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag));
+        }
+        // -1 if absent or unparseable; HTTP dates have whole seconds
+        long since = request.getIfModifiedSince();
+        return since >= 0 && version.getLastModified().getEpochSecond() * 1000 <= since;
+    }
+
+    private static <T> ResponseEntity<T> notModified(ResourceVersion version) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(version.getTag())
+                .lastModified(version.getLastModified())
+                .build();
+    }
+
+    private static <T> ResponseEntity<T> withValidators(ResponseEntity<T> response, ResourceVersion version) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .eTag(version.getTag())
+                .lastModified(version.getLastModified())
+                .body(response.getBody());
+    }
+}
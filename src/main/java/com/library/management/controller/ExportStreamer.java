@@ -0,0 +1,144 @@
+package com.library.management.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes report exports as CSV or NDJSON straight from a forward-only source to the response,
+ * gzip-compressed when the client accepts it.
+ * <p>
+ * Heap use is one output buffer plus the source's fetch window, whatever the table size.
+ * Writes block once the client stops reading and the socket buffers fill, which in turn
+ * stalls the cursor, so a slow client slows the export rather than piling rows up in memory.
+ */
+@Component
+public class ExportStreamer {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectMapper objectMapper;
+
+    public ExportStreamer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * True if the Accept-Encoding header allows gzip, by name or through "*", with a non-zero quality.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals("gzip") && !name.equals("*")) {
+                continue;
+            }
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (quality > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param name   download file name without extension
+     * @param header CSV column names
+     * @param csvRow CSV values of a row, in header order; NDJSON writes the row object itself
+     * @param source pushes every row to the consumer it is given; it runs on the async
+     *               response thread, so it must open its own transaction
+     */
+    public <T> ResponseEntity<StreamingResponseBody> export(String name, ExportFormat format, boolean gzip,
+                                                            List<String> header, Function<T, List<?>> csvRow,
+                                                            Consumer<Consumer<T>> source) {
+        StreamingResponseBody body = out -> {
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            OutputStream buffered = new BufferedOutputStream(compressed != null ? compressed : out, BUFFER_SIZE);
+            try {
+                if (format == ExportFormat.CSV) {
+                    writeCsvLine(buffered, header);
+                }
+                source.accept(row -> {
+                    try {
+                        if (format == ExportFormat.CSV) {
+                            writeCsvLine(buffered, csvRow.apply(row));
+                        } else {
+                            buffered.write(objectMapper.writeValueAsBytes(row));
+                            buffered.write('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            buffered.flush();
+            if (compressed != null) {
+                compressed.finish();
+            }
+        };
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(format.getContentType()));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(name + "." + format.getExtension()).build());
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            headers.add(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    private static void writeCsvLine(OutputStream out, List<?> values) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                appendCsvField(line, value.toString());
+            }
+        }
+        line.append("\r\n");
+        out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // RFC 4180: quote fields holding a separator, quote or line break, doubling inner quotes
+    private static void appendCsvField(StringBuilder line, String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            line.append(value);
+            return;
+        }
+        line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
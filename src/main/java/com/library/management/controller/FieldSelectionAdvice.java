@@ -0,0 +1,54 @@
+package com.library.management.controller;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Compact views: {@code ?fields=title,author} limits every book and user in a JSON response
+ * to the listed properties plus {@code id}, e.g. to leave long descriptions out of list pages.
+ * Unknown names are ignored. Without the parameter, responses are unchanged.
+ */
+@RestControllerAdvice
+public class FieldSelectionAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    public static final String FILTER_ID = "fieldSelection";
+    public static final String FIELDS_PARAM = "fields";
+
+    /**
+     * The default for every serialization: entities carry the filter ID but are written whole.
+     */
+    public static final FilterProvider ALL_FIELDS = new SimpleFilterProvider()
+            .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+
+    public static FilterProvider select(String fields) {
+        Set<String> names = new LinkedHashSet<>();
+        names.add("id");
+        Arrays.stream(fields.split(",")).map(String::trim).filter(name -> !name.isEmpty()).forEach(names::add);
+        return new SimpleFilterProvider().addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(names));
+    }
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            String fields = servletRequest.getServletRequest().getParameter(FIELDS_PARAM);
+            if (fields != null && !fields.isBlank()) {
+                bodyContainer.setFilters(select(fields));
+            }
+        }
+    }
+}
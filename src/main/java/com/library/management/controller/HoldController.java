@@ -0,0 +1,52 @@
+package com.library.management.controller;
+
+import com.library.management.model.Hold;
+import com.library.management.service.HoldService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/holds")
+@CrossOrigin(origins = "http://localhost:3000")
+@Slf4j
+public class HoldController {
+
+    private final HoldService holdService;
+
+    @Autowired
+    public HoldController(HoldService holdService) {
+        this.holdService = holdService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Hold> placeHold(@RequestParam Long userId, @RequestParam Long bookId) {
+        log.debug("REST request to place hold: userID={}, bookID={}", userId, bookId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(holdService.placeHold(userId, bookId));
+    }
+
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<List<Hold>> getHoldsByUser(@PathVariable Long userId) {
+        log.debug("REST request to get holds for user ID: {}", userId);
+        return ResponseEntity.ok(holdService.getHoldsByUser(userId));
+    }
+
+    /**
+     * The book's WAITING holds in the order copies will be assigned.
+     */
+    @GetMapping("/book/{bookId}")
+    public ResponseEntity<List<Hold>> getQueue(@PathVariable Long bookId) {
+        log.debug("REST request to get hold queue for book ID: {}", bookId);
+        return ResponseEntity.ok(holdService.getQueue(bookId));
+    }
+
+    @PutMapping("/{id}/cancel")
+    public ResponseEntity<Hold> cancelHold(@PathVariable Long id) {
+        log.debug("REST request to cancel hold ID: {}", id);
+        return ResponseEntity.ok(holdService.cancelHold(id));
+    }
+}
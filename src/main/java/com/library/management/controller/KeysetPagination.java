@@ -0,0 +1,63 @@
+package com.library.management.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Resolves {@code limit}/{@code after} cursor parameters for list endpoints and
+ * advertises the next cursor in the {@code X-Next-Cursor} response header, and the
+ * next page's URL, the current request with {@code after} replaced, as a
+ * {@code Link: <...>; rel="next"} header.
+ */
+@Component
+public class KeysetPagination {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public KeysetPagination(@Value("${library.pagination.default-limit:100}") int defaultLimit,
+                            @Value("${library.pagination.max-limit:1000}") int maxLimit) {
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    public int resolveLimit(Integer requested) {
+        if (requested == null) {
+            return defaultLimit;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        return Math.min(requested, maxLimit);
+    }
+
+    /**
+     * Wraps a page in a 200 response; when the page is full the ID of its last
+     * element is returned as the cursor for the next request.
+     */
+    public <T> ResponseEntity<List<T>> page(List<T> items, int limit, Function<T, Long> idOf) {
+        return page(items, items, limit, idOf);
+    }
+
+    /**
+     * Same, for a body that wraps the page's items.
+     */
+    public <T, B> ResponseEntity<B> page(B body, List<T> items, int limit, Function<T, Long> idOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!items.isEmpty() && items.size() >= limit) {
+            Long next = idOf.apply(items.get(items.size() - 1));
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(next));
+            response.header(HttpHeaders.LINK, "<" + ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", next).toUriString() + ">; rel=\"next\"");
+        }
+        return response.body(body);
+    }
+}
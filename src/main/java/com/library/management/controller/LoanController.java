@@ -1,16 +1,27 @@
 package com.library.management.controller;
 
+import com.library.management.dto.BatchItemResult;
+import com.library.management.dto.BorrowRequest;
+import com.library.management.dto.LoanPage;
+import com.library.management.dto.LoanReference;
+import com.library.management.dto.LoanSummary;
+import com.library.management.journal.CirculationEvent;
+import com.library.management.journal.CirculationJournal;
 import com.library.management.model.Loan;
 import com.library.management.service.LoanService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
@@ -19,47 +30,113 @@ import java.util.Map;
 @Slf4j
 public class LoanController {
 
+    private static final List<String> LOAN_EXPORT_COLUMNS = List.of("id", "loanDate", "dueDate", "returnDate",
+            "status", "bookId", "bookIsbn", "bookTitle", "userId", "username", "notes");
+
     private final LoanService loanService;
+    private final KeysetPagination pagination;
+    private final NdjsonStreamer ndjsonStreamer;
+    private final CirculationJournal circulationJournal;
+    private final ExportStreamer exportStreamer;
 
     @Autowired
-    public LoanController(LoanService loanService) {
+    public LoanController(LoanService loanService, KeysetPagination pagination, NdjsonStreamer ndjsonStreamer,
+                          CirculationJournal circulationJournal, ExportStreamer exportStreamer) {
         this.loanService = loanService;
+        this.pagination = pagination;
+        this.ndjsonStreamer = ndjsonStreamer;
+        this.circulationJournal = circulationJournal;
+        this.exportStreamer = exportStreamer;
     }
 
     @GetMapping
-    public ResponseEntity<List<Loan>> getAllLoans() {
-        log.debug("REST request to get all loans");
-        return ResponseEntity.ok(loanService.getAllLoans());
+    public ResponseEntity<List<LoanSummary>> getAllLoans(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        log.debug("REST request to get loans after ID: {} (limit {})", after, limit);
+        int pageSize = pagination.resolveLimit(limit);
+        return pagination.page(loanService.getLoanSummariesPage(after, pageSize), pageSize, LoanSummary::getId);
+    }
+
+    /**
+     * The same page normalized: loans reference books and users by ID, and each book and user
+     * is sent once next to them. Combine with fields= to trim the side-loaded entities.
+     */
+    @GetMapping("/normalized")
+    public ResponseEntity<LoanPage> getNormalizedLoans(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        log.debug("REST request to get normalized loans after ID: {} (limit {})", after, limit);
+        int pageSize = pagination.resolveLimit(limit);
+        LoanPage page = loanService.getNormalizedLoansPage(after, pageSize);
+        return pagination.page(page, page.getLoans(), pageSize, LoanReference::getId);
+    }
+
+    @GetMapping(value = "/stream", produces = NdjsonStreamer.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamLoans() {
+        log.debug("REST request to stream all loans");
+        return ndjsonStreamer.stream(loanService::streamAllLoanSummaries);
+    }
+
+    /**
+     * Report export of live and archived loans as CSV or NDJSON, gzip-compressed if the client
+     * accepts it. Optional filters: loan status and an inclusive loan date range.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportLoans(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.debug("REST request to export loans: format={}, status={}, from={}, to={}", format, status, from, to);
+        ExportFormat exportFormat = ExportFormat.of(format);
+        Loan.LoanStatus loanStatus = parseStatus(status);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        return exportStreamer.<LoanSummary>export("loans", exportFormat, ExportStreamer.acceptsGzip(acceptEncoding),
+                LOAN_EXPORT_COLUMNS, LoanController::exportRow,
+                consumer -> loanService.exportLoanSummaries(loanStatus, from, to, consumer));
+    }
+
+    /**
+     * Circulation events after the given journal sequence, read straight from the journal segments.
+     */
+    @GetMapping(value = "/events", produces = NdjsonStreamer.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEvents(@RequestParam(defaultValue = "0") long since) {
+        log.debug("REST request to stream circulation events since sequence {}", since);
+        return ndjsonStreamer.<CirculationEvent>stream(consumer -> circulationJournal.forEachSince(since, consumer));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Loan> getLoanById(@PathVariable Long id) {
+    public ResponseEntity<LoanSummary> getLoanById(@PathVariable Long id) {
         log.debug("REST request to get loan by ID: {}", id);
-        return ResponseEntity.ok(loanService.getLoanById(id));
+        return ResponseEntity.ok(loanService.getLoanSummaryById(id));
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Loan>> getLoansByUser(@PathVariable Long userId) {
+    public ResponseEntity<List<LoanSummary>> getLoansByUser(@PathVariable Long userId) {
         log.debug("REST request to get loans for user ID: {}", userId);
-        return ResponseEntity.ok(loanService.getLoansByUser(userId));
+        return ResponseEntity.ok(loanService.getLoanSummariesByUser(userId));
     }
 
     @GetMapping("/user/{userId}/current")
-    public ResponseEntity<List<Loan>> getCurrentLoansByUser(@PathVariable Long userId) {
+    public ResponseEntity<List<LoanSummary>> getCurrentLoansByUser(@PathVariable Long userId) {
         log.debug("REST request to get current loans for user ID: {}", userId);
-        return ResponseEntity.ok(loanService.getCurrentLoansByUser(userId));
+        return ResponseEntity.ok(loanService.getCurrentLoanSummariesByUser(userId));
     }
 
     @GetMapping("/overdue")
-    public ResponseEntity<List<Loan>> getOverdueLoans() {
+    public ResponseEntity<List<LoanSummary>> getOverdueLoans() {
         log.debug("REST request to get overdue loans");
-        return ResponseEntity.ok(loanService.getOverdueLoans());
+        return ResponseEntity.ok(loanService.getOverdueLoanSummaries());
     }
 
     @GetMapping("/due-soon")
-    public ResponseEntity<List<Loan>> getLoansDueSoon(@RequestParam(defaultValue = "7") int days) {
+    public ResponseEntity<List<LoanSummary>> getLoansDueSoon(@RequestParam(defaultValue = "7") int days) {
         log.debug("REST request to get loans due in the next {} days", days);
-        return ResponseEntity.ok(loanService.getLoansDueSoon(days));
+        return ResponseEntity.ok(loanService.getLoanSummariesDueSoon(days));
     }
 
     @PostMapping("/borrow")
@@ -72,6 +149,18 @@ public class LoanController {
                 .body(loanService.borrowBook(userId, bookId, dueDate));
     }
 
+    @PostMapping("/borrow/batch")
+    public ResponseEntity<List<BatchItemResult>> borrowBooks(@RequestBody List<BorrowRequest> requests) {
+        log.debug("REST request to borrow {} books in one batch", requests.size());
+        return ResponseEntity.ok(loanService.borrowBooks(requests));
+    }
+
+    @PutMapping("/return/batch")
+    public ResponseEntity<List<BatchItemResult>> returnBooks(@RequestBody List<Long> loanIds) {
+        log.debug("REST request to return {} loans in one batch", loanIds.size());
+        return ResponseEntity.ok(loanService.returnBooks(loanIds));
+    }
+
     @PutMapping("/{id}/return")
     public ResponseEntity<Loan> returnBook(@PathVariable Long id) {
         log.debug("REST request to return book for loan ID: {}", id);
@@ -92,4 +181,21 @@ public class LoanController {
         loanService.reportLost(id);
         return ResponseEntity.ok().build();
     }
-}
\ No newline at end of file
+
+    private static Loan.LoanStatus parseStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        try {
+            return Loan.LoanStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown loan status: " + status);
+        }
+    }
+
+    private static List<?> exportRow(LoanSummary loan) {
+        return Arrays.asList(loan.getId(), loan.getLoanDate(), loan.getDueDate(), loan.getReturnDate(),
+                loan.getStatus(), loan.getBookId(), loan.getBookIsbn(), loan.getBookTitle(),
+                loan.getUserId(), loan.getUsername(), loan.getNotes());
+    }
+}
@@ -1,13 +1,16 @@
 package com.library.management.controller;
 
+import com.library.management.dto.ResourceVersion;
 import com.library.management.model.User;
 import com.library.management.service.UserService;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -18,28 +21,59 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final KeysetPagination pagination;
+    private final NdjsonStreamer ndjsonStreamer;
+    private final ConditionalGet conditionalGet;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, KeysetPagination pagination, NdjsonStreamer ndjsonStreamer,
+                          ConditionalGet conditionalGet) {
         this.userService = userService;
+        this.pagination = pagination;
+        this.ndjsonStreamer = ndjsonStreamer;
+        this.conditionalGet = conditionalGet;
     }
 
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        log.debug("REST request to get all users");
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<List<User>> getAllUsers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader HttpHeaders headers) {
+        log.debug("REST request to get users after ID: {} (limit {})", after, limit);
+        int pageSize = pagination.resolveLimit(limit);
+        return conditionalGet.collection(headers, userService.getUserCollectionVersion(),
+                () -> pagination.page(userService.getUsersPage(after, pageSize), pageSize, User::getId));
+    }
+
+    @GetMapping(value = "/stream", produces = NdjsonStreamer.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        log.debug("REST request to stream all users");
+        return ndjsonStreamer.stream(userService::streamAllUsers);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<User> getUserById(@PathVariable Long id, @RequestHeader HttpHeaders headers) {
         log.debug("REST request to get user by ID: {}", id);
-        return ResponseEntity.ok(userService.getUserById(id));
+        return conditionalGet.entity(headers, () -> userService.getUserVersion(id),
+                () -> userService.getUserById(id), ResourceVersion::of);
+    }
+
+    @GetMapping("/username/{username}")
+    public ResponseEntity<User> getUserByUsername(@PathVariable String username, @RequestHeader HttpHeaders headers) {
+        log.debug("REST request to get user by username: {}", username);
+        return conditionalGet.entity(headers, () -> userService.getUserVersionByUsername(username),
+                () -> userService.getUserByUsername(username), ResourceVersion::of);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<User>> searchUsers(@RequestParam String keyword) {
+    public ResponseEntity<List<User>> searchUsers(
+            @RequestParam String keyword,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader HttpHeaders headers) {
         log.debug("REST request to search users with keyword: {}", keyword);
-        return ResponseEntity.ok(userService.searchUsers(keyword));
+        int resultLimit = pagination.resolveLimit(limit);
+        return conditionalGet.collection(headers, userService.getUserCollectionVersion(),
+                () -> ResponseEntity.ok(userService.searchUsers(keyword, resultLimit)));
     }
 
     @PostMapping
@@ -0,0 +1,24 @@
+package com.library.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pushed to availability subscribers: the copies of a book on the shelf when the change was
+ * sent, and the net change since the previous notification for that book.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityChange {
+    private Long bookId;
+    private Integer availableCopies;
+    private Long waitingHolds;
+    private Integer delta;
+
+    // Folds a later notification for the same book into this one
+    public AvailabilityChange merge(AvailabilityChange later) {
+        return new AvailabilityChange(bookId, later.availableCopies, later.waitingHolds, delta + later.delta);
+    }
+}
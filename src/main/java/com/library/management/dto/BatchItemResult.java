@@ -0,0 +1,26 @@
+package com.library.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one entry of a batch request, reported at the entry's position in the request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult {
+    private int index;
+    private boolean success;
+    private LoanSummary loan;
+    private String error;
+
+    public static BatchItemResult success(int index, LoanSummary loan) {
+        return new BatchItemResult(index, true, loan, null);
+    }
+
+    public static BatchItemResult failure(int index, String error) {
+        return new BatchItemResult(index, false, null, error);
+    }
+}
@@ -0,0 +1,19 @@
+package com.library.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * One entry of a batch borrow; dueDate is optional and defaults like a single borrow.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowRequest {
+    private Long userId;
+    private Long bookId;
+    private LocalDate dueDate;
+}
@@ -0,0 +1,33 @@
+package com.library.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Circulation counters of one book or user as aggregated from the loans table;
+ * the reference the denormalized counters are reconciled against.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CirculationCounts {
+    private Long ownerId;
+    private Long activeLoans;
+    private Long lifetimeBorrows;
+    private Long overdueLoans;
+
+    public static CirculationCounts none(Long ownerId) {
+        return new CirculationCounts(ownerId, 0L, 0L, 0L);
+    }
+
+    public CirculationCounts plus(CirculationCounts other) {
+        return new CirculationCounts(ownerId, activeLoans + other.activeLoans,
+                lifetimeBorrows + other.lifetimeBorrows, overdueLoans + other.overdueLoans);
+    }
+
+    public boolean matches(long activeLoans, long lifetimeBorrows, long overdueLoans) {
+        return this.activeLoans == activeLoans && this.lifetimeBorrows == lifetimeBorrows
+                && this.overdueLoans == overdueLoans;
+    }
+}
@@ -0,0 +1,42 @@
+package com.library.management.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a catalog import report: a rejected record, the running totals after a
+ * committed batch, or the final totals.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportEvent {
+
+    public enum Type {
+        ERROR, PROGRESS, SUMMARY
+    }
+
+    private Type type;
+    // Record number in the feed, counting from 1 (errors only)
+    private Long position;
+    private String isbn;
+    private String message;
+    private Long read;
+    private Long upserted;
+    private Long rejected;
+
+    public static ImportEvent error(long position, String isbn, String message) {
+        return new ImportEvent(Type.ERROR, position, isbn, message, null, null, null);
+    }
+
+    public static ImportEvent progress(long read, long upserted, long rejected) {
+        return new ImportEvent(Type.PROGRESS, null, null, null, read, upserted, rejected);
+    }
+
+    public static ImportEvent summary(long read, long upserted, long rejected) {
+        return new ImportEvent(Type.SUMMARY, null, null, null, read, upserted, rejected);
+    }
+}
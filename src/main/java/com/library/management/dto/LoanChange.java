@@ -0,0 +1,28 @@
+package com.library.management.dto;
+
+import com.library.management.model.Loan;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Pushed to availability subscribers when a loan is created or changes status or due date.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanChange {
+    private Long loanId;
+    private Long userId;
+    private Long bookId;
+    private Loan.LoanStatus status;
+    private LocalDate dueDate;
+    private LocalDate returnDate;
+
+    public static LoanChange from(Loan loan) {
+        return new LoanChange(loan.getId(), loan.getUser().getId(), loan.getBook().getId(), loan.getStatus(),
+                loan.getDueDate(), loan.getReturnDate());
+    }
+}
@@ -0,0 +1,23 @@
+package com.library.management.dto;
+
+import com.library.management.model.Book;
+import com.library.management.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Normalized page of loans: loans reference books and users by ID, and each book and user
+ * on the page is sent once in the side-loaded dictionaries, keyed by ID.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanPage {
+    private List<LoanReference> loans;
+    private Map<Long, Book> books;
+    private Map<Long, User> users;
+}
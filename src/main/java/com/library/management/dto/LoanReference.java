@@ -0,0 +1,30 @@
+package com.library.management.dto;
+
+import com.library.management.model.Loan;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A loan in a {@link LoanPage}: its book and user by ID only.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanReference {
+    private Long id;
+    private LocalDate loanDate;
+    private LocalDate dueDate;
+    private LocalDate returnDate;
+    private Loan.LoanStatus status;
+    private String notes;
+    private Long bookId;
+    private Long userId;
+
+    public static LoanReference from(LoanSummary loan) {
+        return new LoanReference(loan.getId(), loan.getLoanDate(), loan.getDueDate(), loan.getReturnDate(),
+                loan.getStatus(), loan.getNotes(), loan.getBookId(), loan.getUserId());
+    }
+}
@@ -0,0 +1,49 @@
+package com.library.management.dto;
+
+import com.library.management.model.ArchivedLoan;
+import com.library.management.model.Loan;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Slim read model of a loan, fetched with a single join query instead of
+ * loading the full {@link com.library.management.model.User} and
+ * {@link com.library.management.model.Book} entities.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanSummary {
+    private Long id;
+    private LocalDate loanDate;
+    private LocalDate dueDate;
+    private LocalDate returnDate;
+    private Loan.LoanStatus status;
+    private String notes;
+    private Long bookId;
+    private String bookTitle;
+    private String bookIsbn;
+    private Long userId;
+    private String username;
+
+    public static LoanSummary from(Loan loan) {
+        return new LoanSummary(loan.getId(), loan.getLoanDate(), loan.getDueDate(), loan.getReturnDate(),
+                loan.getStatus(), loan.getNotes(),
+                loan.getBook().getId(), loan.getBook().getTitle(), loan.getBook().getIsbn(),
+                loan.getUser().getId(), loan.getUser().getUsername());
+    }
+
+    public static LoanSummary from(ArchivedLoan loan) {
+        return new LoanSummary(loan.getId(), loan.getLoanDate(), loan.getDueDate(), loan.getReturnDate(),
+                loan.getStatus(), loan.getNotes(), loan.getBookId(), loan.getBookTitle(), loan.getBookIsbn(),
+                loan.getUserId(), loan.getUsername());
+    }
+
+    // Informational only, mirrors Loan.isOverdue()
+    public boolean isOverdue() {
+        return returnDate == null && LocalDate.now().isAfter(dueDate);
+    }
+}
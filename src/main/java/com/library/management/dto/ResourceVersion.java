@@ -0,0 +1,36 @@
+package com.library.management.dto;
+
+import com.library.management.model.Book;
+import com.library.management.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Validators of a resource for conditional GETs: the (unquoted) strong ETag and the time it
+ * last changed. Small enough to read without loading the resource itself.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResourceVersion {
+    private String tag;
+    private Instant lastModified;
+
+    // One row; the ID keeps the tags of a deleted and a re-created row with the same ISBN apart
+    public ResourceVersion(Long id, Long version, LocalDateTime lastModifiedAt) {
+        this(id + "." + version, lastModifiedAt.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    public static ResourceVersion of(Book book) {
+        return new ResourceVersion(book.getId(), book.getVersion(), book.getLastModifiedAt());
+    }
+
+    public static ResourceVersion of(User user) {
+        return new ResourceVersion(user.getId(), user.getVersion(), user.getLastModifiedAt());
+    }
+}
@@ -0,0 +1,18 @@
+package com.library.management.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class CirculationEvent {
+    // Position in the journal, starting at 1; pass the last one seen as "since" to resume
+    private long sequence;
+    private long loanId;
+    private long userId;
+    private long bookId;
+    private CirculationEventType type;
+    private Instant timestamp;
+}
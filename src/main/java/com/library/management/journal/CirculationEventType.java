@@ -0,0 +1,11 @@
+package com.library.management.journal;
+
+/**
+ * Stored in the journal by ordinal, so new types may only be appended.
+ */
+public enum CirculationEventType {
+    BORROWED,
+    RETURNED,
+    RENEWED,
+    LOST
+}
@@ -0,0 +1,271 @@
+package com.library.management.journal;
+
+import com.library.management.model.Loan;
+import com.library.management.service.AfterCommit;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of circulation events in memory-mapped segment files.
+ * <p>
+ * Every record is 48 bytes: sequence, epoch millis, loan, user and book IDs (8 bytes each),
+ * the event type ordinal and a commit marker (4 bytes each). The marker is written last, so
+ * a record torn by a crash is ignored when the journal is reopened. Segments hold a fixed
+ * number of records and are named after the sequence of their first record; a full segment
+ * is forced to disk and a new one is started.
+ * <p>
+ * Delivery is at most once. Events are appended after the loan's transaction commits, so a
+ * crash between the commit and the append loses the event; the journal is a feed for
+ * consumers, not a record the database can be rebuilt from. An appended record is in the page
+ * cache and survives a process crash, but only reaches the disk when its segment rolls over,
+ * on {@link #close()}, or on the periodic {@link #force()}, so an OS crash or power loss can
+ * lose up to {@code library.journal.force-interval-ms} of events.
+ */
+@Component
+@Lazy(false) // Recover the segments at startup rather than on the first borrow
+@Slf4j
+public class CirculationJournal {
+
+    static final int RECORD_SIZE = 48;
+    private static final int COMMIT_MARKER = 0x4C4A4E31;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final CirculationEventType[] TYPES = CirculationEventType.values();
+
+    private final Path directory;
+    private final int recordsPerSegment;
+
+    // First sequence of each segment -> segment file
+    private final NavigableMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+
+    // Guards the active segment; a lock rather than synchronized because rolling over forces
+    // the segment to disk, which must not pin a virtual thread's carrier
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private MappedByteBuffer active;
+    private int activeCapacity;
+    private int activePosition;
+    // Records of the active segment before this one are on disk
+    private int forcedPosition;
+
+    // Published after a record is complete; readers never look past it
+    private volatile long lastSequence;
+
+    @Autowired
+    public CirculationJournal(@Value("${library.journal.dir:data/journal}") String directory,
+                              @Value("${library.journal.records-per-segment:262144}") int recordsPerSegment) {
+        this.directory = Paths.get(directory);
+        this.recordsPerSegment = recordsPerSegment;
+        try {
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open circulation journal in " + directory, e);
+        }
+    }
+
+    public void appendAfterCommit(CirculationEventType type, Loan loan) {
+        long loanId = loan.getId();
+        long userId = loan.getUser().getId();
+        long bookId = loan.getBook().getId();
+        AfterCommit.run(() -> append(type, loanId, userId, bookId));
+    }
+
+    public CirculationEvent append(CirculationEventType type, long loanId, long userId, long bookId) {
+        writeLock.lock();
+        try {
+            if (activePosition == activeCapacity) {
+                roll();
+            }
+            long sequence = lastSequence + 1;
+            long timestamp = System.currentTimeMillis();
+
+            int offset = activePosition * RECORD_SIZE;
+            active.putLong(offset, sequence);
+            active.putLong(offset + 8, timestamp);
+            active.putLong(offset + 16, loanId);
+            active.putLong(offset + 24, userId);
+            active.putLong(offset + 32, bookId);
+            active.putInt(offset + 40, type.ordinal());
+            active.putInt(offset + 44, COMMIT_MARKER);
+
+            activePosition++;
+            lastSequence = sequence;
+            return new CirculationEvent(sequence, loanId, userId, bookId, type, Instant.ofEpochMilli(timestamp));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Forces the records appended to the active segment since the last call to disk. The
+     * write lock is only held to take the range, so appends are not stalled by the sync.
+     */
+    @Scheduled(fixedDelayString = "${library.journal.force-interval-ms:1000}")
+    public void force() {
+        MappedByteBuffer segment;
+        int from;
+        int to;
+        writeLock.lock();
+        try {
+            segment = active;
+            from = forcedPosition;
+            to = activePosition;
+            forcedPosition = to;
+        } finally {
+            writeLock.unlock();
+        }
+        if (to > from) {
+            segment.force(from * RECORD_SIZE, (to - from) * RECORD_SIZE);
+        }
+    }
+
+    /**
+     * Passes every event with a sequence greater than {@code since} to the consumer, oldest
+     * first, reading the segments directly; appends made while reading are not included.
+     */
+    public void forEachSince(long since, Consumer<CirculationEvent> consumer) {
+        scan(since, lastSequence, consumer);
+    }
+
+    /**
+     * Returns up to {@code limit} events with a sequence greater than {@code since}, oldest
+     * first; only the segments holding them are read.
+     */
+    public List<CirculationEvent> read(long since, int limit) {
+        List<CirculationEvent> events = new ArrayList<>();
+        scan(since, Math.min(lastSequence, since + limit), events::add);
+        return events;
+    }
+
+    // Sequences are contiguous, so bounding the last one bounds the segments and records read
+    private void scan(long since, long last, Consumer<CirculationEvent> consumer) {
+        if (since >= last) {
+            return;
+        }
+        Long start = segments.floorKey(Math.max(since + 1, 1));
+        Map<Long, Path> tail = start != null ? segments.tailMap(start, true) : segments;
+        for (Map.Entry<Long, Path> segment : tail.entrySet()) {
+            long first = segment.getKey();
+            if (first > last) {
+                break;
+            }
+            ByteBuffer buffer = mapReadOnly(segment.getValue());
+            int records = buffer.capacity() / RECORD_SIZE;
+            for (int i = (int) Math.max(0, since + 1 - first); i < records && first + i <= last; i++) {
+                consumer.accept(decode(buffer, i * RECORD_SIZE));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        writeLock.lock();
+        try {
+            if (active != null) {
+                active.force();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .forEach(file -> segments.put(firstSequenceOf(file), file));
+        }
+        if (segments.isEmpty()) {
+            lastSequence = 0;
+            roll();
+            return;
+        }
+
+        // Resume after the last complete record of the newest segment
+        Map.Entry<Long, Path> newest = segments.lastEntry();
+        active = map(newest.getValue(), Files.size(newest.getValue()));
+        activeCapacity = active.capacity() / RECORD_SIZE;
+        activePosition = 0;
+        while (activePosition < activeCapacity
+                && active.getInt(activePosition * RECORD_SIZE + 44) == COMMIT_MARKER) {
+            activePosition++;
+        }
+        forcedPosition = activePosition;
+        lastSequence = newest.getKey() + activePosition - 1;
+        log.info("Circulation journal opened at sequence {} ({} segments)", lastSequence, segments.size());
+    }
+
+    private void roll() {
+        try {
+            if (active != null) {
+                active.force();
+            }
+            long first = lastSequence + 1;
+            Path file = directory.resolve(String.format("%020d%s", first, SEGMENT_SUFFIX));
+            active = map(file, (long) recordsPerSegment * RECORD_SIZE);
+            activeCapacity = recordsPerSegment;
+            activePosition = 0;
+            forcedPosition = 0;
+            segments.put(first, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start a new circulation journal segment", e);
+        }
+    }
+
+    private static MappedByteBuffer map(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static ByteBuffer mapReadOnly(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read circulation journal segment " + file, e);
+        }
+    }
+
+    private static CirculationEvent decode(ByteBuffer buffer, int offset) {
+        return new CirculationEvent(
+                buffer.getLong(offset),
+                buffer.getLong(offset + 16),
+                buffer.getLong(offset + 24),
+                buffer.getLong(offset + 32),
+                TYPES[buffer.getInt(offset + 40)],
+                Instant.ofEpochMilli(buffer.getLong(offset + 8)));
+    }
+
+    private static long firstSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.library.management.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * Async appender whose backlog shedding is driven by a configurable level: once the queue has
+ * less than {@code discardingThreshold} free slots, events at or below {@code discardLevel}
+ * are dropped instead of queued. Combined with {@code neverBlock}, request threads never wait
+ * on disk I/O.
+ */
+public class LevelDiscardingAsyncAppender extends AsyncAppender {
+
+    private Level discardLevel = Level.INFO;
+
+    public void setDiscardLevel(String discardLevel) {
+        this.discardLevel = Level.toLevel(discardLevel, Level.INFO);
+    }
+
+    public String getDiscardLevel() {
+        return discardLevel.toString();
+    }
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        return event.getLevel().toInt() <= discardLevel.toInt();
+    }
+}
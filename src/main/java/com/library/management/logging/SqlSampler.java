@@ -0,0 +1,33 @@
+package com.library.management.logging;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Replaces always-on Hibernate SQL/bind tracing. Statements are logged (without bind values)
+ * only while the {@code com.library.management.sql} logger is at DEBUG, and then only for a
+ * sampled fraction of them, so tracing can be switched on at runtime without flooding the logs.
+ */
+public class SqlSampler implements StatementInspector {
+
+    public static final String LOGGER_NAME = "com.library.management.sql";
+
+    private static final Logger log = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private final double sampleRate;
+
+    public SqlSampler(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (log.isDebugEnabled() && (sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            log.debug(sql);
+        }
+        return sql;
+    }
+}
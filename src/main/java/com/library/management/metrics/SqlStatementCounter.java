@@ -0,0 +1,65 @@
+package com.library.management.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Counts the SQL statements Hibernate prepares while an API request is handled and records
+ * the total per request in {@code library.sql.statements}, tagged by method and URI pattern.
+ * Work done on async streaming threads is not attributed to the request.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector, AsyncHandlerInterceptor {
+
+    private static final ThreadLocal<int[]> CURRENT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public SqlStatementCounter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = CURRENT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        CURRENT.set(new int[1]);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        CURRENT.remove();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        int[] count = CURRENT.get();
+        CURRENT.remove();
+        if (count == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("library.sql.statements")
+                .description("SQL statements prepared per request")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                .register(meterRegistry)
+                .record(count[0]);
+    }
+}
@@ -0,0 +1,74 @@
+package com.library.management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A closed loan moved out of the hot {@code loans} table by the LoanArchiver. It keeps the
+ * original loan ID and copies the book and user names it was listed with, so archived
+ * history reads without joins and no foreign keys tie the archive to live rows.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "loan_archive", indexes = {
+        @Index(name = "idx_loan_archive_user", columnList = "user_id"),
+        @Index(name = "idx_loan_archive_book", columnList = "book_id")
+})
+public class ArchivedLoan {
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(nullable = false)
+    private Long bookId;
+
+    @Column(nullable = false)
+    private String bookTitle;
+
+    @Column(nullable = false)
+    private String bookIsbn;
+
+    @Column(nullable = false)
+    private LocalDate loanDate;
+
+    @Column(nullable = false)
+    private LocalDate dueDate;
+
+    private LocalDate returnDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Loan.LoanStatus status;
+
+    private String notes;
+
+    @Column(nullable = false)
+    private LocalDate archivedOn;
+
+    // Rebuilds the loan as it was listed before archiving, around the live user and book
+    public Loan toLoan(User user, Book book) {
+        return Loan.builder()
+                .id(id)
+                .user(user)
+                .book(book)
+                .loanDate(loanDate)
+                .dueDate(dueDate)
+                .returnDate(returnDate)
+                .status(status)
+                .notes(notes)
+                .build();
+    }
+}
@@ -1,6 +1,8 @@
 package com.library.management.model;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -9,8 +11,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -19,7 +24,13 @@ import java.util.Set;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "books")
+@EntityListeners(AuditingEntityListener.class)
+@JsonFilter("fieldSelection") // Narrowed by the fields= parameter, see FieldSelectionAdvice
+@Table(name = "books", indexes = {
+        @Index(name = "idx_books_author", columnList = "author"),
+        @Index(name = "idx_books_genre", columnList = "genre"),
+        @Index(name = "idx_books_available_copies", columnList = "available_copies")
+})
 public class Book {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -54,6 +65,35 @@ public class Book {
     @Column(nullable = false)
     private int availableCopies;
 
+    // Circulation counters, maintained by LoanService and repaired by CirculationCounterReconciler
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private long activeLoans;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private long lifetimeBorrows;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private long overdueLoans;
+
+    // Length of the hold queue, maintained by HoldService under the book's row lock
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private long waitingHolds;
+
+    // Bumped by every write, bulk updates included; with lastModifiedAt the validators of conditional GETs
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private long version;
+
+    @LastModifiedDate
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private LocalDateTime lastModifiedAt;
+
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
     private Set<Loan> loans = new HashSet<>();
@@ -0,0 +1,53 @@
+package com.library.management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A patron's place in the queue for a title with no copy on the shelf. Holds are served in ID
+ * order: a returned copy goes to the book's oldest WAITING hold, which becomes READY until its
+ * pickup deadline. Users and books are referenced by ID so queue operations never load either.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "holds", indexes = {
+        @Index(name = "idx_holds_book_status", columnList = "book_id, status, id"),
+        @Index(name = "idx_holds_user_status", columnList = "user_id, status"),
+        @Index(name = "idx_holds_status_expires_at", columnList = "status, expires_at")
+})
+public class Hold {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long bookId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private HoldStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime placedAt;
+
+    // Set when a copy is set aside for the patron
+    private LocalDateTime readyAt;
+
+    // Pickup deadline of a READY hold
+    private LocalDateTime expiresAt;
+
+    public enum HoldStatus {
+        WAITING, READY, FULFILLED, EXPIRED, CANCELLED
+    }
+}
@@ -14,7 +14,12 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "loans")
+@Table(name = "loans", indexes = {
+        @Index(name = "idx_loans_user_status", columnList = "user_id, status"),
+        @Index(name = "idx_loans_book", columnList = "book_id"),
+        @Index(name = "idx_loans_status_due_date", columnList = "status, due_date"),
+        @Index(name = "idx_loans_due_date", columnList = "due_date")
+})
 public class Loan {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
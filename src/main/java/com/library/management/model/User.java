@@ -1,6 +1,8 @@
 package com.library.management.model;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
@@ -8,7 +10,10 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -18,13 +23,19 @@ import java.util.Set;
 @AllArgsConstructor
 @SuperBuilder
 @Entity
-@Table(name = "users")
+@EntityListeners(AuditingEntityListener.class)
+@JsonFilter("fieldSelection") // Narrowed by the fields= parameter, see FieldSelectionAdvice
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_active", columnList = "active")
+})
 public class User extends Person {
     @NotBlank(message = "Username is required")
     @Column(nullable = false, unique = true)
     private String username;
 
+    // Accepted on create and update, never sent back
     @NotBlank(message = "Password is required")
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(nullable = false)
     private String password;
 
@@ -34,6 +45,30 @@ public class User extends Person {
     @Column(nullable = false)
     private boolean active = true;
 
+    // Circulation counters, maintained by LoanService and repaired by CirculationCounterReconciler
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private long activeLoans;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private long lifetimeBorrows;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private long overdueLoans;
+
+    // Bumped by every write, bulk updates included; with lastModifiedAt the validators of conditional GETs
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private long version;
+
+    @LastModifiedDate
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private LocalDateTime lastModifiedAt;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
     private Set<Loan> loans = new HashSet<>();
@@ -0,0 +1,261 @@
+package com.library.management.push;
+
+import com.library.management.dto.AvailabilityChange;
+import com.library.management.dto.LoanChange;
+import com.library.management.model.Hold;
+import com.library.management.model.Loan;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.HoldRepository;
+import com.library.management.repository.LoanRepository;
+import com.library.management.service.AfterCommit;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes shelf availability and loan changes to server-sent event subscribers once the
+ * transactions that made them have committed, so clients no longer poll for them.
+ * <p>
+ * Changes are collected per book and per loan and fanned out every flush interval: a book
+ * that changed any number of times in between yields one event carrying the net delta, with
+ * the shelf state of all changed books read in one query per tick. Each subscriber buffers
+ * its unsent events, coalesced the same way and bounded; a subscriber whose buffer overflows
+ * is disconnected and should refetch before resubscribing. Each subscriber with something to
+ * send drains on a sender thread of its own, so a slow connection only delays itself; one whose
+ * write has been blocked past the write timeout is dropped from the fan-out and its emitter is
+ * completed once that write returns. Idle connections get a heartbeat comment.
+ */
+@Component
+@Lazy(false) // Starts the flush ticker with the application
+@Slf4j
+public class AvailabilityBroadcaster {
+
+    static final String AVAILABILITY_EVENT = "availability";
+    static final String LOAN_EVENT = "loan";
+    static final String DISCONNECTED_METRIC = "library.push.slow-subscribers";
+
+    private final BookRepository bookRepository;
+    private final LoanRepository loanRepository;
+    private final HoldRepository holdRepository;
+    private final MeterRegistry meterRegistry;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final long writeTimeoutNanos;
+    private final long heartbeatTicks;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    // Changes committed since the last tick: book ID -> net delta, loan ID -> latest state
+    private final ConcurrentHashMap<Long, Integer> bookDeltas = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, LoanChange> loanChanges = new ConcurrentHashMap<>();
+    // Holds placed since the last tick, for subscribers following their users: hold ID -> hold
+    private final ConcurrentHashMap<Long, Hold> placedHolds = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService senders;
+    private long ticks;
+
+    public AvailabilityBroadcaster(BookRepository bookRepository, LoanRepository loanRepository,
+                                   HoldRepository holdRepository, MeterRegistry meterRegistry,
+                                   @Value("${library.push.flush-interval-ms:250}") long flushIntervalMillis,
+                                   @Value("${library.push.heartbeat-interval-ms:15000}") long heartbeatMillis,
+                                   @Value("${library.push.buffer-size:1000}") int bufferSize,
+                                   @Value("${library.push.max-subscribers:10000}") int maxSubscribers,
+                                   @Value("${library.push.timeout-ms:1800000}") long timeoutMillis,
+                                   @Value("${library.push.write-timeout-ms:10000}") long writeTimeoutMillis) {
+        this.bookRepository = bookRepository;
+        this.loanRepository = loanRepository;
+        this.holdRepository = holdRepository;
+        this.meterRegistry = meterRegistry;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeoutMillis;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+        this.heartbeatTicks = Math.max(1, heartbeatMillis / flushIntervalMillis);
+        meterRegistry.gauge("library.push.subscribers", subscriptions, Set::size);
+
+        // Own threads rather than the shared scheduler: sweeps and archiving runs must not stall pushes
+        this.ticker = Executors.newSingleThreadScheduledExecutor(daemonThreads("availability-push"));
+        // Unbounded but at most one thread per subscriber, as each drains under its own claim
+        this.senders = Executors.newCachedThreadPool(daemonThreads("availability-push-sender"));
+        ticker.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a subscription. Availability events are limited to the given books and loan events
+     * to the given books and users; an empty collection means no restriction. Given users but
+     * no books, availability events are limited to the books those users have on loan or on hold.
+     */
+    public SseEmitter subscribe(Collection<Long> bookIds, Collection<Long> userIds) {
+        if (subscriptions.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many availability subscribers, try again later");
+        }
+        Set<Long> followed = new HashSet<>();
+        if (bookIds.isEmpty() && !userIds.isEmpty()) {
+            followed.addAll(loanRepository.findOpenLoanBookIdsByUserIdIn(userIds));
+            followed.addAll(holdRepository.findActiveBookIdsByUserIdIn(userIds));
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(emitter, Set.copyOf(bookIds), Set.copyOf(userIds), followed,
+                bufferSize);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(e -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        log.debug("Availability subscriber added (books {}, users {}); {} subscribed",
+                bookIds, userIds, subscriptions.size());
+        return emitter;
+    }
+
+    /**
+     * Records a change of the book's shelf copies by delta (0 if only its hold queue changed),
+     * published after the current transaction commits.
+     */
+    public void bookChangedAfterCommit(Long bookId, int delta) {
+        if (!subscriptions.isEmpty()) {
+            AfterCommit.run(() -> bookDeltas.merge(bookId, delta, Integer::sum));
+        }
+    }
+
+    /**
+     * Records a newly placed hold, which also changes its book's queue, published after the
+     * current transaction commits.
+     */
+    public void holdPlacedAfterCommit(Hold hold) {
+        if (!subscriptions.isEmpty()) {
+            AfterCommit.run(() -> {
+                placedHolds.put(hold.getId(), hold);
+                bookDeltas.merge(hold.getBookId(), 0, Integer::sum);
+            });
+        }
+    }
+
+    /**
+     * Records the loan's current state, published after the current transaction commits.
+     */
+    public void loanChangedAfterCommit(Loan loan) {
+        if (!subscriptions.isEmpty()) {
+            LoanChange change = LoanChange.from(loan);
+            AfterCommit.run(() -> loanChanges.put(change.getLoanId(), change));
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        ticker.shutdownNow();
+        subscriptions.forEach(Subscription::close);
+        subscriptions.clear();
+        // Lets drains in flight finish and complete their emitters
+        senders.shutdown();
+    }
+
+    private void flush() {
+        // Anything thrown out of a scheduled task would cancel all further ticks
+        try {
+            Map<Long, Integer> deltas = takeAll(bookDeltas);
+            Map<Long, LoanChange> loans = takeAll(loanChanges);
+            Map<Long, Hold> holds = takeAll(placedHolds);
+            boolean heartbeat = ++ticks % heartbeatTicks == 0;
+            if (subscriptions.isEmpty()) {
+                return;
+            }
+
+            List<AvailabilityChange> availability = deltas.isEmpty()
+                    ? List.of() : bookRepository.findAvailabilityByIdIn(deltas.keySet());
+            availability.forEach(change -> change.setDelta(deltas.get(change.getBookId())));
+
+            long now = System.nanoTime();
+            for (Subscription subscription : subscriptions) {
+                if (subscription.stalled(now, writeTimeoutNanos)) {
+                    disconnect(subscription, "a write blocked for more than " + writeTimeoutNanos / 1_000_000 + " ms");
+                    continue;
+                }
+                // Follows first, so a book borrowed or held this tick is already followed
+                holds.values().forEach(hold -> subscription.follow(hold.getUserId(), hold.getBookId()));
+                loans.values().forEach(subscription::follow);
+
+                boolean kept = true;
+                for (AvailabilityChange change : availability) {
+                    kept &= !subscription.wants(change) || subscription.offer(change);
+                }
+                for (LoanChange change : loans.values()) {
+                    kept &= !subscription.wants(change) || subscription.offer(change);
+                }
+                loans.values().forEach(subscription::unfollow);
+                if (!kept) {
+                    disconnect(subscription, "more than " + bufferSize + " events unsent");
+                    continue;
+                }
+                if (heartbeat) {
+                    subscription.heartbeat();
+                }
+                if (subscription.startSending()) {
+                    senders.execute(() -> send(subscription));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Availability push tick failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void send(Subscription subscription) {
+        try {
+            subscription.drain();
+        } catch (IOException | RuntimeException e) {
+            // The client went away; the emitter's callbacks may not fire for a connection reset
+            log.debug("Availability subscriber dropped: {}", e.getMessage());
+            subscriptions.remove(subscription);
+        }
+    }
+
+    private void disconnect(Subscription subscription, String reason) {
+        log.warn("Disconnecting availability subscriber: {}", reason);
+        meterRegistry.counter(DISCONNECTED_METRIC).increment();
+        subscriptions.remove(subscription);
+        subscription.close();
+    }
+
+    private static <K, V> Map<K, V> takeAll(ConcurrentHashMap<K, V> source) {
+        Map<K, V> taken = new HashMap<>();
+        for (K key : source.keySet()) {
+            V value = source.remove(key);
+            if (value != null) {
+                taken.put(key, value);
+            }
+        }
+        return taken;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,225 @@
+package com.library.management.push;
+
+import com.library.management.dto.AvailabilityChange;
+import com.library.management.dto.LoanChange;
+import com.library.management.model.Loan;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One SSE subscriber: its filters and a bounded buffer of unsent changes, coalesced per book
+ * and per loan so a subscriber that lags only ever holds the latest state of each.
+ */
+final class Subscription {
+
+    private final SseEmitter emitter;
+    // Empty means no filter
+    private final Set<Long> bookIds;
+    private final Set<Long> userIds;
+    // With only a user filter: the books those users have on loan or on hold, kept current by the broadcaster
+    private final Set<Long> followedBookIds = ConcurrentHashMap.newKeySet();
+    private final int capacity;
+
+    // Guards pending and heartbeat
+    private final ReentrantLock lock = new ReentrantLock();
+    private LinkedHashMap<String, Object> pending = new LinkedHashMap<>();
+    private boolean heartbeat;
+
+    // Set while a sender drains this subscription, so its events go out in order on one thread at a time
+    private final AtomicBoolean sending = new AtomicBoolean();
+    // Set once the subscription is dropped; whoever holds the sending claim then completes the emitter
+    private final AtomicBoolean closed = new AtomicBoolean();
+    // System.nanoTime() when the write in flight started, 0 while there is none
+    private volatile long writeStartedAt;
+
+    Subscription(SseEmitter emitter, Set<Long> bookIds, Set<Long> userIds, Set<Long> followedBookIds,
+                 int capacity) {
+        this.emitter = emitter;
+        this.bookIds = bookIds;
+        this.userIds = userIds;
+        this.followedBookIds.addAll(followedBookIds);
+        this.capacity = capacity;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    boolean wants(AvailabilityChange change) {
+        if (!bookIds.isEmpty()) {
+            return bookIds.contains(change.getBookId());
+        }
+        return userIds.isEmpty() || followedBookIds.contains(change.getBookId());
+    }
+
+    boolean wants(LoanChange change) {
+        return (bookIds.isEmpty() || bookIds.contains(change.getBookId()))
+                && (userIds.isEmpty() || userIds.contains(change.getUserId()));
+    }
+
+    /**
+     * Follows the book of an open loan of a followed user.
+     */
+    void follow(LoanChange change) {
+        if (followsUser(change.getUserId()) && open(change)) {
+            followedBookIds.add(change.getBookId());
+        }
+    }
+
+    /**
+     * Stops following the book of a closed loan of a followed user; called once the change
+     * that closed it has been offered, so the subscriber still sees the copy come back.
+     */
+    void unfollow(LoanChange change) {
+        if (followsUser(change.getUserId()) && !open(change)) {
+            followedBookIds.remove(change.getBookId());
+        }
+    }
+
+    /**
+     * Tracks a hold placed by a followed user on the book.
+     */
+    void follow(Long userId, Long bookId) {
+        if (followsUser(userId)) {
+            followedBookIds.add(bookId);
+        }
+    }
+
+    /**
+     * Buffers the change, merging it into an unsent one for the same book or loan.
+     * Returns false if the buffer is full, i.e. the subscriber cannot keep up.
+     */
+    boolean offer(AvailabilityChange change) {
+        return buffer("book:" + change.getBookId(), change);
+    }
+
+    boolean offer(LoanChange change) {
+        return buffer("loan:" + change.getLoanId(), change);
+    }
+
+    void heartbeat() {
+        lock.lock();
+        try {
+            heartbeat = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Claims the subscription for one sender; false if a sender is already on it or it is closed.
+     */
+    boolean startSending() {
+        return !closed.get() && sending.compareAndSet(false, true);
+    }
+
+    /**
+     * True if a write to the client has been blocked for longer than the timeout.
+     */
+    boolean stalled(long nowNanos, long timeoutNanos) {
+        long started = writeStartedAt;
+        return started != 0 && nowNanos - started > timeoutNanos;
+    }
+
+    /**
+     * Closes the subscription. The emitter is completed right away if no sender is on it,
+     * otherwise by the sender once its current write returns, never underneath it.
+     */
+    void close() {
+        closed.set(true);
+        if (sending.compareAndSet(false, true)) {
+            emitter.complete();
+        }
+    }
+
+    /**
+     * Sends everything buffered, until the buffer stays empty or the subscription is closed.
+     * Must follow a successful {@link #startSending()}. Throws if the connection is gone, after
+     * which the subscription stays closed.
+     */
+    void drain() throws IOException {
+        try {
+            while (!closed.get()) {
+                List<Object> batch;
+                boolean beat;
+                lock.lock();
+                try {
+                    if (pending.isEmpty() && !heartbeat) {
+                        // Released under the lock, so a concurrent offer either sees it or was drained here
+                        sending.set(false);
+                        batch = null;
+                        beat = false;
+                    } else {
+                        batch = new ArrayList<>(pending.values());
+                        pending = new LinkedHashMap<>();
+                        beat = heartbeat && batch.isEmpty();
+                        heartbeat = false;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (batch == null) {
+                    // A close racing with the release either sees the claim free or is seen here
+                    if (closed.get() && sending.compareAndSet(false, true)) {
+                        emitter.complete();
+                    }
+                    return;
+                }
+                for (Object change : batch) {
+                    String name = change instanceof AvailabilityChange
+                            ? AvailabilityBroadcaster.AVAILABILITY_EVENT : AvailabilityBroadcaster.LOAN_EVENT;
+                    write(SseEmitter.event().name(name).data(change, MediaType.APPLICATION_JSON));
+                }
+                if (beat) {
+                    // Idle connections only; lets proxies and the container notice dead clients
+                    write(SseEmitter.event().comment("heartbeat"));
+                }
+            }
+            // Closed while this sender held the claim, so completing is left to it
+            emitter.complete();
+        } catch (IOException | RuntimeException e) {
+            closed.set(true);
+            throw e;
+        } finally {
+            writeStartedAt = 0;
+        }
+    }
+
+    private void write(SseEmitter.SseEventBuilder event) throws IOException {
+        writeStartedAt = System.nanoTime();
+        emitter.send(event);
+        writeStartedAt = 0;
+    }
+
+    private static boolean open(LoanChange change) {
+        return change.getStatus() == Loan.LoanStatus.BORROWED || change.getStatus() == Loan.LoanStatus.OVERDUE;
+    }
+
+    private boolean followsUser(Long userId) {
+        return bookIds.isEmpty() && userIds.contains(userId);
+    }
+
+    private boolean buffer(String key, Object change) {
+        lock.lock();
+        try {
+            Object previous = pending.get(key);
+            if (previous == null && pending.size() >= capacity) {
+                return false;
+            }
+            pending.put(key, previous instanceof AvailabilityChange earlier
+                    ? earlier.merge((AvailabilityChange) change) : change);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.library.management.repository;
+
+import com.library.management.dto.CirculationCounts;
+import com.library.management.dto.LoanSummary;
+import com.library.management.model.ArchivedLoan;
+import com.library.management.model.Loan;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface ArchivedLoanRepository extends JpaRepository<ArchivedLoan, Long> {
+    List<ArchivedLoan> findByUserIdOrderById(Long userId);
+
+    // Counterpart of LoanRepository.streamSummaries over the archive; each null filter matches every row
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.library.management.dto.LoanSummary(a.id, a.loanDate, a.dueDate, a.returnDate, " +
+            "a.status, a.notes, a.bookId, a.bookTitle, a.bookIsbn, a.userId, a.username) FROM ArchivedLoan a " +
+            "WHERE (:status IS NULL OR a.status = :status) " +
+            "AND (:from IS NULL OR a.loanDate >= :from) AND (:to IS NULL OR a.loanDate <= :to) ORDER BY a.id")
+    Stream<LoanSummary> streamSummaries(@Param("status") Loan.LoanStatus status,
+                                        @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Copies the given loans into the archive in one statement; LoanRepository.deleteClosedByIdIn removes the originals
+    @Modifying
+    @Query("INSERT INTO ArchivedLoan (id, userId, username, bookId, bookTitle, bookIsbn, loanDate, dueDate, " +
+            "returnDate, status, notes, archivedOn) " +
+            "SELECT l.id, u.id, u.username, b.id, b.title, b.isbn, l.loanDate, l.dueDate, " +
+            "l.returnDate, l.status, l.notes, :archivedOn FROM Loan l JOIN l.user u JOIN l.book b " +
+            "WHERE l.id IN :ids AND l.status IN (com.library.management.model.Loan$LoanStatus.RETURNED, " +
+            "com.library.management.model.Loan$LoanStatus.LOST)")
+    int archive(@Param("ids") Collection<Long> ids, @Param("archivedOn") LocalDate archivedOn);
+
+    @Modifying
+    @Query("DELETE FROM ArchivedLoan a WHERE a.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM ArchivedLoan a WHERE a.bookId = :bookId")
+    int deleteByBookId(@Param("bookId") Long bookId);
+
+    // Archived loans are closed, so they only count towards lifetime borrows
+    @Query("SELECT new com.library.management.dto.CirculationCounts(a.bookId, 0L, COUNT(a), 0L) " +
+            "FROM ArchivedLoan a WHERE a.bookId BETWEEN :first AND :last GROUP BY a.bookId")
+    List<CirculationCounts> countCirculationByBookIdBetween(@Param("first") Long first, @Param("last") Long last);
+
+    @Query("SELECT new com.library.management.dto.CirculationCounts(a.userId, 0L, COUNT(a), 0L) " +
+            "FROM ArchivedLoan a WHERE a.userId BETWEEN :first AND :last GROUP BY a.userId")
+    List<CirculationCounts> countCirculationByUserIdBetween(@Param("first") Long first, @Param("last") Long last);
+}
@@ -1,22 +1,62 @@
 package com.library.management.repository;
 
+import com.library.management.dto.AvailabilityChange;
+import com.library.management.dto.ResourceVersion;
 import com.library.management.model.Book;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
+
+    // Part of every bulk update: such updates bypass the entity's @Version and auditing
+    String BUMP_VERSION = "b.version = b.version + 1, b.lastModifiedAt = LOCAL DATETIME";
+
     Optional<Book> findByIsbn(String isbn);
 
+    List<Book> findByIsbnIn(Collection<String> isbns);
+
+    // Validators for conditional GETs, read without loading the book
+    @Query("SELECT new com.library.management.dto.ResourceVersion(b.id, b.version, b.lastModifiedAt) " +
+            "FROM Book b WHERE b.id = :id")
+    Optional<ResourceVersion> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT new com.library.management.dto.ResourceVersion(b.id, b.version, b.lastModifiedAt) " +
+            "FROM Book b WHERE b.isbn = :isbn")
+    Optional<ResourceVersion> findVersionByIsbn(@Param("isbn") String isbn);
+
     List<Book> findByAuthor(String author);
 
     List<Book> findByGenre(String genre);
 
+    // Keyset page: rows strictly after the given ID, in ID order
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // Forward-only scan for exports; must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT b FROM Book b ORDER BY b.id")
+    Stream<Book> streamAll();
+
+    // Report export scan; a null genre matches every book
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT b FROM Book b WHERE (:genre IS NULL OR b.genre = :genre) ORDER BY b.id")
+    Stream<Book> streamByGenre(@Param("genre") String genre);
+
     @Query("SELECT b FROM Book b WHERE b.availableCopies > 0")
     List<Book> findAllAvailableBooks();
 
@@ -26,4 +66,77 @@ public interface BookRepository extends JpaRepository<Book, Long> {
             "LOWER(b.isbn) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(b.genre) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Book> searchBooks(@Param("keyword") String keyword);
-}
\ No newline at end of file
+
+    // Row-locks the books (in ID order, so concurrent batches cannot deadlock) for batch circulation
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.id IN :ids ORDER BY b.id")
+    List<Book> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Reconciliation page: row-locks the next books in ID order so no transition can move their counters meanwhile
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.id > :after ORDER BY b.id")
+    List<Book> findPageForUpdate(@Param("after") Long after, Pageable pageable);
+
+    // Guarded claim: only succeeds while a copy is left, so concurrent borrows can never oversell,
+    // and while no hold is waiting, as a shelf copy then belongs to the head of the queue
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Book b SET " + BUMP_VERSION + ", b.availableCopies = b.availableCopies - 1, " +
+            "b.activeLoans = b.activeLoans + 1, b.lifetimeBorrows = b.lifetimeBorrows + 1 " +
+            "WHERE b.id = :id AND b.availableCopies > 0 AND b.waitingHolds = 0")
+    int claimCopy(@Param("id") Long id);
+
+    // Picks up a copy a READY hold set aside for the user; zero rows means there is none.
+    // Runs before HoldRepository.fulfil so the book is locked before the hold, as on every queue path.
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Book b SET " + BUMP_VERSION + ", b.activeLoans = b.activeLoans + 1, " +
+            "b.lifetimeBorrows = b.lifetimeBorrows + 1 " +
+            "WHERE b.id = :id AND EXISTS (SELECT h.id FROM Hold h WHERE h.bookId = :id AND h.userId = :userId " +
+            "AND h.status = com.library.management.model.Hold$HoldStatus.READY AND h.expiresAt > :now)")
+    int claimHeldCopy(@Param("id") Long id, @Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    // overdue is 1 if the closed loan was OVERDUE, else 0. Guarded on an empty hold queue:
+    // zero rows means holds are waiting and the copy belongs to the next one (releaseCopyToQueue).
+    @Modifying
+    @Query("UPDATE Book b SET " + BUMP_VERSION + ", b.availableCopies = b.availableCopies + 1, " +
+            "b.activeLoans = b.activeLoans - 1, b.overdueLoans = b.overdueLoans - :overdue " +
+            "WHERE b.id = :id AND b.waitingHolds = 0")
+    int releaseCopy(@Param("id") Long id, @Param("overdue") long overdue);
+
+    // Like releaseCopy, but hands the copy to the hold queue if it is not empty, in which case
+    // the queue is shortened instead of the shelf growing
+    @Modifying
+    @Query("UPDATE Book b SET " + BUMP_VERSION + ", " +
+            "b.availableCopies = b.availableCopies + CASE WHEN b.waitingHolds > 0 THEN 0 ELSE 1 END, " +
+            "b.waitingHolds = b.waitingHolds - CASE WHEN b.waitingHolds > 0 THEN 1L ELSE 0L END, " +
+            "b.activeLoans = b.activeLoans - 1, b.overdueLoans = b.overdueLoans - :overdue WHERE b.id = :id")
+    int releaseCopyToQueue(@Param("id") Long id, @Param("overdue") long overdue);
+
+    // Joins the hold queue; zero rows means the book is missing or has a copy on the shelf
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Book b SET " + BUMP_VERSION + ", b.waitingHolds = b.waitingHolds + 1 " +
+            "WHERE b.id = :id AND b.availableCopies <= 0")
+    int enqueueHold(@Param("id") Long id);
+
+    // Current shelf state for availability pushes; the delta is filled in by the caller
+    @Query("SELECT new com.library.management.dto.AvailabilityChange(b.id, b.availableCopies, b.waitingHolds, 0) " +
+            "FROM Book b WHERE b.id IN :ids")
+    List<AvailabilityChange> findAvailabilityByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Books with copies on the shelf and holds waiting, e.g. after copies were added to a queued title
+    @Query("SELECT b.id FROM Book b WHERE b.availableCopies > 0 AND b.waitingHolds > 0 ORDER BY b.id")
+    List<Long> findIdsWithIdleCopies(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Book b SET " + BUMP_VERSION + ", b.totalCopies = b.totalCopies - 1, " +
+            "b.activeLoans = b.activeLoans - 1, b.overdueLoans = b.overdueLoans - :overdue WHERE b.id = :id")
+    int writeOffCopy(@Param("id") Long id, @Param("overdue") long overdue);
+
+    // Counts the loans of the batch that are still BORROWED; run just before LoanRepository.markOverdue
+    @Modifying
+    @Query("UPDATE Book b SET " + BUMP_VERSION + ", " +
+            "b.overdueLoans = b.overdueLoans + (SELECT COUNT(l) FROM Loan l WHERE l.book = b " +
+            "AND l.id IN :ids AND l.status = com.library.management.model.Loan$LoanStatus.BORROWED) " +
+            "WHERE b.id IN (SELECT l.book.id FROM Loan l WHERE l.id IN :ids " +
+            "AND l.status = com.library.management.model.Loan$LoanStatus.BORROWED)")
+    int addOverdueLoans(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,62 @@
+package com.library.management.repository;
+
+import com.library.management.model.Hold;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+    List<Hold> findByUserIdOrderById(Long userId);
+
+    List<Hold> findByUserIdAndStatusInOrderById(Long userId, Collection<Hold.HoldStatus> statuses);
+
+    List<Hold> findByBookIdAndStatusOrderById(Long bookId, Hold.HoldStatus status);
+
+    boolean existsByUserIdAndBookIdAndStatusIn(Long userId, Long bookId, Collection<Hold.HoldStatus> statuses);
+
+    // Head of the book's queue; callers hold the book's row lock
+    Optional<Hold> findFirstByBookIdAndStatusOrderById(Long bookId, Hold.HoldStatus status);
+
+    // Picks up a copy set aside for the user; zero rows means there is no unexpired READY hold
+    @Modifying
+    @Query("UPDATE Hold h SET h.status = com.library.management.model.Hold$HoldStatus.FULFILLED " +
+            "WHERE h.userId = :userId AND h.bookId = :bookId " +
+            "AND h.status = com.library.management.model.Hold$HoldStatus.READY AND h.expiresAt > :now")
+    int fulfil(@Param("userId") Long userId, @Param("bookId") Long bookId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT h.id FROM Hold h WHERE h.status = com.library.management.model.Hold$HoldStatus.READY " +
+            "AND h.expiresAt <= :now ORDER BY h.id")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Scalar lookups of the books to lock before the holds themselves are read
+    @Query("SELECT h.bookId FROM Hold h WHERE h.id = :id")
+    Optional<Long> findBookIdById(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT h.bookId FROM Hold h WHERE h.id IN :ids")
+    List<Long> findBookIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT h.bookId FROM Hold h WHERE h.userId = :userId AND h.status IN :statuses")
+    List<Long> findBookIdsByUserIdAndStatusIn(@Param("userId") Long userId,
+                                              @Param("statuses") Collection<Hold.HoldStatus> statuses);
+
+    @Query("SELECT DISTINCT h.bookId FROM Hold h WHERE h.userId IN :userIds AND h.status IN " +
+            "(com.library.management.model.Hold$HoldStatus.WAITING, com.library.management.model.Hold$HoldStatus.READY)")
+    List<Long> findActiveBookIdsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query("DELETE FROM Hold h WHERE h.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM Hold h WHERE h.bookId = :bookId")
+    int deleteByBookId(@Param("bookId") Long bookId);
+}
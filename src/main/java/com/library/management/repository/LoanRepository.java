@@ -1,38 +1,164 @@
 package com.library.management.repository;
 
+import com.library.management.dto.CirculationCounts;
+import com.library.management.dto.LoanSummary;
 import com.library.management.model.Book;
 import com.library.management.model.Loan;
 import com.library.management.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface LoanRepository extends JpaRepository<Loan, Long> {
+    // Projection shared by the read-model queries: one join, no full User/Book rows
+    String SUMMARY_SELECT = "SELECT new com.library.management.dto.LoanSummary(" +
+            "l.id, l.loanDate, l.dueDate, l.returnDate, l.status, l.notes, " +
+            "b.id, b.title, b.isbn, u.id, u.username) " +
+            "FROM Loan l JOIN l.book b JOIN l.user u ";
+
+    // Active, lifetime and overdue loan counts; the tail of a CirculationCounts constructor expression
+    String CIRCULATION_COUNTS = "SUM(CASE WHEN l.status IN (com.library.management.model.Loan$LoanStatus.BORROWED, " +
+            "com.library.management.model.Loan$LoanStatus.OVERDUE) THEN 1L ELSE 0L END), COUNT(l), " +
+            "SUM(CASE WHEN l.status = com.library.management.model.Loan$LoanStatus.OVERDUE THEN 1L ELSE 0L END)) ";
+
     List<Loan> findByUser(User user);
 
     List<Loan> findByBook(Book book);
 
     List<Loan> findByStatus(Loan.LoanStatus status);
 
-    @Query("SELECT l FROM Loan l WHERE l.returnDate IS NULL AND l.dueDate < CURRENT_DATE")
+    // Keyset page: rows strictly after the given ID, in ID order
+    @Query(SUMMARY_SELECT + "WHERE l.id > :id ORDER BY l.id")
+    List<LoanSummary> findSummaryPageAfter(@Param("id") Long id, Pageable pageable);
+
+    // Forward-only scan for exports; must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + "ORDER BY l.id")
+    Stream<LoanSummary> streamAllSummaries();
+
+    // Report export scan; each null filter matches every row
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + "WHERE (:status IS NULL OR l.status = :status) " +
+            "AND (:from IS NULL OR l.loanDate >= :from) AND (:to IS NULL OR l.loanDate <= :to) ORDER BY l.id")
+    Stream<LoanSummary> streamSummaries(@Param("status") Loan.LoanStatus status,
+                                        @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(SUMMARY_SELECT + "WHERE l.id = :id")
+    Optional<LoanSummary> findSummaryById(@Param("id") Long id);
+
+    // A user's full loan history, live loans and archived ones, in one statement; unordered, as an
+    // ORDER BY would bind to the archive half only
+    @Query(SUMMARY_SELECT + "WHERE u.id = :userId UNION ALL " +
+            "SELECT new com.library.management.dto.LoanSummary(a.id, a.loanDate, a.dueDate, a.returnDate, " +
+            "a.status, a.notes, a.bookId, a.bookTitle, a.bookIsbn, a.userId, a.username) FROM ArchivedLoan a " +
+            "WHERE a.userId = :userId")
+    List<LoanSummary> findSummariesWithArchiveByUserId(@Param("userId") Long userId);
+
+    @Query(SUMMARY_SELECT + "WHERE u.id = :userId AND l.status IN (com.library.management.model.Loan$LoanStatus.BORROWED, " +
+            "com.library.management.model.Loan$LoanStatus.OVERDUE) ORDER BY l.id")
+    List<LoanSummary> findCurrentSummariesByUserId(@Param("userId") Long userId);
+
+    // OVERDUE is materialized by OverdueLoanSweeper, so this is an index lookup on (status, due_date)
+    @Query(SUMMARY_SELECT + "WHERE l.status = com.library.management.model.Loan$LoanStatus.OVERDUE ORDER BY l.id")
+    List<LoanSummary> findOverdueSummaries();
+
+    @Query(SUMMARY_SELECT + "WHERE l.dueDate BETWEEN :startDate AND :endDate ORDER BY l.id")
+    List<LoanSummary> findSummariesDueBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT l FROM Loan l WHERE l.status = com.library.management.model.Loan$LoanStatus.OVERDUE")
     List<Loan> findAllOverdueLoans();
 
-    @Query("SELECT l FROM Loan l WHERE l.user = ?1 AND l.status = com.library.management.model.Loan$LoanStatus.BORROWED")
+    @Query("SELECT l FROM Loan l WHERE l.user = ?1 AND l.status IN (com.library.management.model.Loan$LoanStatus.BORROWED, " +
+            "com.library.management.model.Loan$LoanStatus.OVERDUE)")
     List<Loan> findCurrentLoansByUser(User user);
 
     @Query("SELECT l FROM Loan l WHERE l.dueDate BETWEEN ?1 AND ?2")
     List<Loan> findLoansDueBetween(LocalDate startDate, LocalDate endDate);
 
-    // Direct update method for loan status
+    // Borrowed loans past due, oldest due date first
+    @Query("SELECT l.id FROM Loan l WHERE l.status = com.library.management.model.Loan$LoanStatus.BORROWED " +
+            "AND l.dueDate < :today ORDER BY l.dueDate, l.id")
+    List<Long> findOverdueCandidateIds(@Param("today") LocalDate today, Pageable pageable);
+
+    // Same as above, restricted to due dates not covered by an earlier sweep
+    @Query("SELECT l.id FROM Loan l WHERE l.status = com.library.management.model.Loan$LoanStatus.BORROWED " +
+            "AND l.dueDate >= :since AND l.dueDate < :today ORDER BY l.dueDate, l.id")
+    List<Long> findOverdueCandidateIdsSince(@Param("since") LocalDate since, @Param("today") LocalDate today,
+                                            Pageable pageable);
+
+    // Guarded on BORROWED so loans returned in the meantime are left alone
+    @Modifying
+    @Query("UPDATE Loan l SET l.status = com.library.management.model.Loan$LoanStatus.OVERDUE " +
+            "WHERE l.id IN :ids AND l.status = com.library.management.model.Loan$LoanStatus.BORROWED")
+    int markOverdue(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT l.book.id FROM Loan l WHERE l.id IN :ids")
+    List<Long> findBookIdsByLoanIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT l.user.id FROM Loan l WHERE l.id IN :ids")
+    List<Long> findUserIdsByLoanIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT l.book.id FROM Loan l WHERE l.user.id IN :userIds AND l.status IN " +
+            "(com.library.management.model.Loan$LoanStatus.BORROWED, com.library.management.model.Loan$LoanStatus.OVERDUE)")
+    List<Long> findOpenLoanBookIdsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    // Closed loans whose due date is before the cutoff, oldest IDs first
+    @Query("SELECT l.id FROM Loan l WHERE l.status IN (com.library.management.model.Loan$LoanStatus.RETURNED, " +
+            "com.library.management.model.Loan$LoanStatus.LOST) AND l.dueDate < :cutoff ORDER BY l.id")
+    List<Long> findArchivableIds(@Param("cutoff") LocalDate cutoff, Pageable pageable);
+
+    // Removes loans that ArchivedLoanRepository.archive copied; guarded on closed so a live loan is never dropped
+    @Modifying
+    @Query("DELETE FROM Loan l WHERE l.id IN :ids AND l.status IN (com.library.management.model.Loan$LoanStatus.RETURNED, " +
+            "com.library.management.model.Loan$LoanStatus.LOST)")
+    int deleteClosedByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT l FROM Loan l JOIN FETCH l.book JOIN FETCH l.user WHERE l.id IN :ids")
+    List<Loan> findAllWithBookAndUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT l FROM Loan l JOIN FETCH l.book JOIN FETCH l.user WHERE l.id = :id")
+    Optional<Loan> findWithBookAndUserById(@Param("id") Long id);
+
+    // Closes a loan as RETURNED; returns 0 if its status is no longer the expected one, i.e. it was
+    // closed or marked OVERDUE since it was read
+    @Modifying
+    @Query("UPDATE Loan l SET l.status = com.library.management.model.Loan$LoanStatus.RETURNED, " +
+            "l.returnDate = :returnDate, l.notes = :notes WHERE l.id = :id AND l.status = :expected")
+    int markReturned(@Param("id") Long id, @Param("expected") Loan.LoanStatus expected,
+                     @Param("returnDate") LocalDate returnDate, @Param("notes") String notes);
+
+    // Closes a loan as LOST; returns 0 if its status is no longer the expected one
     @Modifying
-    @Transactional
-    @Query("UPDATE Loan l SET l.status = :status WHERE l.id = :id")
-    int updateLoanStatus(@Param("id") Long id, @Param("status") Loan.LoanStatus status);
-}
\ No newline at end of file
+    @Query("UPDATE Loan l SET l.status = com.library.management.model.Loan$LoanStatus.LOST, l.notes = :notes " +
+            "WHERE l.id = :id AND l.status = :expected")
+    int markLost(@Param("id") Long id, @Param("expected") Loan.LoanStatus expected, @Param("notes") String notes);
+
+    // Moves the due date of a loan; returns 0 if its status is no longer the expected one
+    @Modifying
+    @Query("UPDATE Loan l SET l.dueDate = :dueDate, l.notes = :notes WHERE l.id = :id AND l.status = :expected")
+    int renew(@Param("id") Long id, @Param("expected") Loan.LoanStatus expected,
+              @Param("dueDate") LocalDate dueDate, @Param("notes") String notes);
+
+    // Reference counts for reconciliation, aggregated over the book ID range of one page
+    @Query("SELECT new com.library.management.dto.CirculationCounts(l.book.id, " + CIRCULATION_COUNTS +
+            "FROM Loan l WHERE l.book.id BETWEEN :first AND :last GROUP BY l.book.id")
+    List<CirculationCounts> countCirculationByBookIdBetween(@Param("first") Long first, @Param("last") Long last);
+
+    // Reference counts for reconciliation, aggregated over the user ID range of one page
+    @Query("SELECT new com.library.management.dto.CirculationCounts(l.user.id, " + CIRCULATION_COUNTS +
+            "FROM Loan l WHERE l.user.id BETWEEN :first AND :last GROUP BY l.user.id")
+    List<CirculationCounts> countCirculationByUserIdBetween(@Param("first") Long first, @Param("last") Long last);
+}
@@ -1,20 +1,51 @@
 package com.library.management.repository;
 
+import com.library.management.dto.ResourceVersion;
 import com.library.management.model.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    // Part of every bulk update: such updates bypass the entity's @Version and auditing
+    String BUMP_VERSION = "u.version = u.version + 1, u.lastModifiedAt = LOCAL DATETIME";
+
     Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
 
+    // Validators for conditional GETs, read without loading the user
+    @Query("SELECT new com.library.management.dto.ResourceVersion(u.id, u.version, u.lastModifiedAt) " +
+            "FROM User u WHERE u.id = :id")
+    Optional<ResourceVersion> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT new com.library.management.dto.ResourceVersion(u.id, u.version, u.lastModifiedAt) " +
+            "FROM User u WHERE u.username = :username")
+    Optional<ResourceVersion> findVersionByUsername(@Param("username") String username);
+
+    // Keyset page: rows strictly after the given ID, in ID order
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // Forward-only scan for exports; must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAll();
+
     @Query("SELECT u FROM User u WHERE u.active = true")
     List<User> findAllActiveUsers();
 
@@ -23,4 +54,34 @@ public interface UserRepository extends JpaRepository<User, Long> {
             "LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(u.username) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<User> searchUsers(@Param("keyword") String keyword);
+
+    // Row-locks the users in ID order, after their books, matching the order of the circulation transitions
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id IN :ids ORDER BY u.id")
+    List<User> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Reconciliation page: row-locks the next users in ID order so no transition can move their counters meanwhile
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id > :after ORDER BY u.id")
+    List<User> findPageForUpdate(@Param("after") Long after, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE User u SET " + BUMP_VERSION + ", u.activeLoans = u.activeLoans + :count, " +
+            "u.lifetimeBorrows = u.lifetimeBorrows + :count WHERE u.id = :id")
+    int recordBorrows(@Param("id") Long id, @Param("count") long count);
+
+    // closed counts returned or lost loans, overdue how many of them were OVERDUE
+    @Modifying
+    @Query("UPDATE User u SET " + BUMP_VERSION + ", u.activeLoans = u.activeLoans - :closed, " +
+            "u.overdueLoans = u.overdueLoans - :overdue WHERE u.id = :id")
+    int recordClosedLoans(@Param("id") Long id, @Param("closed") long closed, @Param("overdue") long overdue);
+
+    // Counts the loans of the batch that are still BORROWED; run just before LoanRepository.markOverdue
+    @Modifying
+    @Query("UPDATE User u SET " + BUMP_VERSION + ", " +
+            "u.overdueLoans = u.overdueLoans + (SELECT COUNT(l) FROM Loan l WHERE l.user = u " +
+            "AND l.id IN :ids AND l.status = com.library.management.model.Loan$LoanStatus.BORROWED) " +
+            "WHERE u.id IN (SELECT l.user.id FROM Loan l WHERE l.id IN :ids " +
+            "AND l.status = com.library.management.model.Loan$LoanStatus.BORROWED)")
+    int addOverdueLoans(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,454 @@
+package com.library.management.search;
+
+import com.library.management.model.Book;
+import com.library.management.service.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+
+/**
+ * In-memory inverted index over book title, author, ISBN, genre and description.
+ * <p>
+ * Every query token must match a document term exactly, except the last token,
+ * which also matches as a prefix so the index can serve a search-as-you-type box.
+ * Documents are ranked by the summed field weights of their matching terms.
+ * <p>
+ * Each term's postings are a pair of primitive arrays sorted by book ID, replaced as a whole
+ * on every change, so tokens are intersected by merging sorted arrays. Reads are lock-free;
+ * writes are serialized. A full rebuild is built off to the side while searches keep using
+ * the current index, and swapped in once the writes made during the scan are replayed onto it.
+ */
+@Component
+@Slf4j
+public class BookSearchIndex {
+
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float ISBN_WEIGHT = 3.0f;
+    private static final float AUTHOR_WEIGHT = 2.0f;
+    private static final float GENRE_WEIGHT = 1.0f;
+    private static final float DESCRIPTION_WEIGHT = 0.5f;
+
+    // Prefix matches score lower than whole-token matches
+    private static final float PREFIX_FACTOR = 0.5f;
+
+    // Upper bound on the number of terms a single prefix may expand to; hitting it marks the hits truncated
+    private static final int MAX_PREFIX_EXPANSIONS = 256;
+
+    // Past this size ratio an intersection binary-searches the larger postings instead of merging them
+    private static final int GALLOP_RATIO = 8;
+
+    private volatile Snapshot state = new Snapshot();
+
+    // Writes made while a rebuild scans the catalog, replayed onto the new snapshot: book ID -> book,
+    // empty for a removal. Null while no rebuild runs.
+    private Map<Long, Optional<Book>> rebuildWrites;
+
+    private volatile boolean ready;
+
+    /**
+     * Adds or replaces a book in the index.
+     */
+    public synchronized void index(Book book) {
+        state.put(book.getId(), weigh(book));
+        if (rebuildWrites != null) {
+            rebuildWrites.put(book.getId(), Optional.of(book));
+        }
+    }
+
+    public synchronized void remove(Long bookId) {
+        state.remove(bookId);
+        if (rebuildWrites != null) {
+            rebuildWrites.put(bookId, Optional.empty());
+        }
+    }
+
+    /**
+     * Replaces the index with one built from a full scan. Searches keep using the current
+     * index, or the database fallback before the first build, until the new one is complete.
+     */
+    public void rebuild(Consumer<Consumer<Book>> scan) {
+        synchronized (this) {
+            if (rebuildWrites != null) {
+                throw new IllegalStateException("Book search index rebuild already running");
+            }
+            rebuildWrites = new LinkedHashMap<>();
+        }
+        try {
+            Map<Long, Map<String, Float>> documents = new HashMap<>();
+            scan.accept(book -> documents.put(book.getId(), weigh(book)));
+            Snapshot rebuilt = Snapshot.of(documents);
+            synchronized (this) {
+                // Each book's latest write, which may also have been scanned; applying it again is harmless
+                rebuildWrites.forEach((id, book) -> {
+                    if (book.isPresent()) {
+                        rebuilt.put(id, weigh(book.get()));
+                    } else {
+                        rebuilt.remove(id);
+                    }
+                });
+                state = rebuilt;
+                ready = true;
+            }
+        } finally {
+            synchronized (this) {
+                rebuildWrites = null;
+            }
+        }
+        log.info("Book search index ready with {} books and {} terms", size(), state.terms.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return state.documents.size();
+    }
+
+    /**
+     * Indexes the book once the surrounding transaction commits, or immediately
+     * when there is none, so rolled-back writes never reach the index.
+     */
+    public void indexAfterCommit(Book book) {
+        AfterCommit.run(() -> index(book));
+    }
+
+    public void removeAfterCommit(Long bookId) {
+        AfterCommit.run(() -> remove(bookId));
+    }
+
+    /**
+     * Returns the IDs of the best matching books, highest score first, marked truncated if
+     * the last token's prefix matched more terms than are expanded.
+     */
+    public SearchHits<Long> search(String query, int limit) {
+        List<String> tokens = Tokenizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return new SearchHits<>(Collections.emptyList(), false);
+        }
+
+        // One snapshot per search, so a rebuild swapped in midway cannot mix two indexes
+        Snapshot snapshot = state;
+        Postings scores = null;
+        boolean truncated = false;
+        for (int i = 0; i < tokens.size(); i++) {
+            Postings matches;
+            if (i < tokens.size() - 1) {
+                matches = snapshot.postings.getOrDefault(tokens.get(i), Postings.EMPTY);
+            } else {
+                PrefixMatch prefix = matchPrefix(snapshot, tokens.get(i));
+                matches = prefix.postings;
+                truncated = prefix.truncated;
+            }
+            scores = scores == null ? matches : intersect(scores, matches);
+            if (scores.size() == 0) {
+                return new SearchHits<>(Collections.emptyList(), truncated);
+            }
+        }
+        return new SearchHits<>(topK(scores, limit), truncated);
+    }
+
+    // The token's own postings and those of up to MAX_PREFIX_EXPANSIONS longer terms, merged by ID
+    private static PrefixMatch matchPrefix(Snapshot snapshot, String token) {
+        List<Postings> parts = new ArrayList<>();
+        Postings exact = snapshot.postings.get(token);
+        if (exact != null) {
+            parts.add(exact);
+        }
+        boolean truncated = false;
+        int expanded = 0;
+        for (String term : snapshot.terms.subSet(token, false, token + Character.MAX_VALUE, false)) {
+            if (++expanded > MAX_PREFIX_EXPANSIONS) {
+                truncated = true;
+                log.debug("Prefix '{}' matches more than {} terms; search results are truncated",
+                        token, MAX_PREFIX_EXPANSIONS);
+                break;
+            }
+            Postings docs = snapshot.postings.get(term);
+            if (docs != null) {
+                parts.add(docs.scaled(PREFIX_FACTOR));
+            }
+        }
+        // Pairwise rounds keep the merging at O(n log k) for k terms
+        while (parts.size() > 1) {
+            List<Postings> merged = new ArrayList<>((parts.size() + 1) / 2);
+            for (int i = 0; i < parts.size(); i += 2) {
+                merged.add(i + 1 < parts.size() ? union(parts.get(i), parts.get(i + 1)) : parts.get(i));
+            }
+            parts = merged;
+        }
+        return new PrefixMatch(parts.isEmpty() ? Postings.EMPTY : parts.get(0), truncated);
+    }
+
+    // IDs in both, with their scores summed
+    private static Postings intersect(Postings left, Postings right) {
+        Postings smaller = left.size() <= right.size() ? left : right;
+        Postings larger = smaller == left ? right : left;
+        long[] ids = new long[smaller.size()];
+        float[] weights = new float[smaller.size()];
+        int n = 0;
+        if (larger.size() / Math.max(1, smaller.size()) >= GALLOP_RATIO) {
+            int from = 0;
+            for (int i = 0; i < smaller.size() && from < larger.size(); i++) {
+                int found = Arrays.binarySearch(larger.ids, from, larger.size(), smaller.ids[i]);
+                if (found >= 0) {
+                    ids[n] = smaller.ids[i];
+                    weights[n++] = smaller.weights[i] + larger.weights[found];
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < smaller.size() && j < larger.size()) {
+                long a = smaller.ids[i];
+                long b = larger.ids[j];
+                if (a == b) {
+                    ids[n] = a;
+                    weights[n++] = smaller.weights[i++] + larger.weights[j++];
+                } else if (a < b) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+        }
+        return new Postings(Arrays.copyOf(ids, n), Arrays.copyOf(weights, n));
+    }
+
+    // IDs in either, keeping the higher score of an ID in both
+    private static Postings union(Postings left, Postings right) {
+        long[] ids = new long[left.size() + right.size()];
+        float[] weights = new float[ids.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < left.size() || j < right.size()) {
+            if (j == right.size() || (i < left.size() && left.ids[i] < right.ids[j])) {
+                ids[n] = left.ids[i];
+                weights[n++] = left.weights[i++];
+            } else if (i == left.size() || right.ids[j] < left.ids[i]) {
+                ids[n] = right.ids[j];
+                weights[n++] = right.weights[j++];
+            } else {
+                ids[n] = left.ids[i];
+                weights[n++] = Math.max(left.weights[i++], right.weights[j++]);
+            }
+        }
+        return new Postings(Arrays.copyOf(ids, n), Arrays.copyOf(weights, n));
+    }
+
+    private static List<Long> topK(Postings scores, int limit) {
+        // Min-heap of positions of the current best candidates; ties prefer the lower (older) ID
+        PriorityQueue<Integer> heap = new PriorityQueue<>(limit + 1, (a, b) -> {
+            int byScore = Float.compare(scores.weights[a], scores.weights[b]);
+            return byScore != 0 ? byScore : Long.compare(scores.ids[b], scores.ids[a]);
+        });
+        for (int i = 0; i < scores.size(); i++) {
+            heap.offer(i);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<Long> ids = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ids.add(scores.ids[heap.poll()]);
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    private static Map<String, Float> weigh(Book book) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, book.getTitle(), TITLE_WEIGHT);
+        addField(weights, book.getAuthor(), AUTHOR_WEIGHT);
+        addField(weights, book.getGenre(), GENRE_WEIGHT);
+        addField(weights, book.getDescription(), DESCRIPTION_WEIGHT);
+        if (book.getIsbn() != null) {
+            // ISBNs are indexed as a single token with separators stripped
+            String isbn = String.join("", Tokenizer.tokenize(book.getIsbn()));
+            if (!isbn.isEmpty()) {
+                weights.merge(isbn, ISBN_WEIGHT, Float::sum);
+            }
+        }
+        return weights;
+    }
+
+    private static void addField(Map<String, Float> weights, String value, float weight) {
+        for (String token : Tokenizer.tokenize(value)) {
+            weights.merge(token, weight, Float::sum);
+        }
+    }
+
+    /**
+     * One complete index. Changed in place by single-book writes, which are serialized by the
+     * enclosing index; a rebuild creates a new one.
+     */
+    private static final class Snapshot {
+
+        // term -> books containing it
+        private final Map<String, Postings> postings = new ConcurrentHashMap<>();
+        // Sorted term dictionary for prefix lookups
+        private final NavigableSet<String> terms = new ConcurrentSkipListSet<>();
+        // book ID -> (term -> weight), needed to unindex a book precisely
+        private final Map<Long, Map<String, Float>> documents = new ConcurrentHashMap<>();
+
+        // Inverts the documents in ID order, so every term's postings come out sorted
+        static Snapshot of(Map<Long, Map<String, Float>> documents) {
+            long[] ids = documents.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            Map<String, PostingsBuilder> builders = new HashMap<>();
+            for (long id : ids) {
+                documents.get(id).forEach((term, weight) ->
+                        builders.computeIfAbsent(term, t -> new PostingsBuilder()).add(id, weight));
+            }
+            Snapshot snapshot = new Snapshot();
+            builders.forEach((term, builder) -> snapshot.postings.put(term, builder.build()));
+            snapshot.terms.addAll(builders.keySet());
+            snapshot.documents.putAll(documents);
+            return snapshot;
+        }
+
+        void put(Long bookId, Map<String, Float> weights) {
+            remove(bookId);
+            weights.forEach((term, weight) -> {
+                Postings docs = postings.get(term);
+                postings.put(term, docs == null ? Postings.of(bookId, weight) : docs.with(bookId, weight));
+                terms.add(term);
+            });
+            documents.put(bookId, weights);
+        }
+
+        void remove(Long bookId) {
+            Map<String, Float> previous = documents.remove(bookId);
+            if (previous == null) {
+                return;
+            }
+            for (String term : previous.keySet()) {
+                Postings docs = postings.get(term);
+                if (docs == null) {
+                    continue;
+                }
+                Postings remaining = docs.without(bookId);
+                if (remaining.size() == 0) {
+                    postings.remove(term);
+                    terms.remove(term);
+                } else {
+                    postings.put(term, remaining);
+                }
+            }
+        }
+    }
+
+    /**
+     * Book IDs in ascending order with the term's weight in each, or a search's running scores.
+     * Never modified once built.
+     */
+    private static final class Postings {
+
+        static final Postings EMPTY = new Postings(new long[0], new float[0]);
+
+        private final long[] ids;
+        private final float[] weights;
+
+        Postings(long[] ids, float[] weights) {
+            this.ids = ids;
+            this.weights = weights;
+        }
+
+        static Postings of(long id, float weight) {
+            return new Postings(new long[] {id}, new float[] {weight});
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        Postings with(long id, float weight) {
+            int at = Arrays.binarySearch(ids, id);
+            if (at >= 0) {
+                float[] replaced = weights.clone();
+                replaced[at] = weight;
+                return new Postings(ids, replaced);
+            }
+            int insertAt = -at - 1;
+            long[] newIds = new long[ids.length + 1];
+            float[] newWeights = new float[ids.length + 1];
+            System.arraycopy(ids, 0, newIds, 0, insertAt);
+            System.arraycopy(weights, 0, newWeights, 0, insertAt);
+            newIds[insertAt] = id;
+            newWeights[insertAt] = weight;
+            System.arraycopy(ids, insertAt, newIds, insertAt + 1, ids.length - insertAt);
+            System.arraycopy(weights, insertAt, newWeights, insertAt + 1, ids.length - insertAt);
+            return new Postings(newIds, newWeights);
+        }
+
+        Postings without(long id) {
+            int at = Arrays.binarySearch(ids, id);
+            if (at < 0) {
+                return this;
+            }
+            long[] newIds = new long[ids.length - 1];
+            float[] newWeights = new float[ids.length - 1];
+            System.arraycopy(ids, 0, newIds, 0, at);
+            System.arraycopy(weights, 0, newWeights, 0, at);
+            System.arraycopy(ids, at + 1, newIds, at, ids.length - at - 1);
+            System.arraycopy(weights, at + 1, newWeights, at, ids.length - at - 1);
+            return new Postings(newIds, newWeights);
+        }
+
+        Postings scaled(float factor) {
+            float[] scaled = new float[weights.length];
+            for (int i = 0; i < weights.length; i++) {
+                scaled[i] = weights[i] * factor;
+            }
+            return new Postings(ids, scaled);
+        }
+    }
+
+    // Growable postings for a rebuild; IDs must be added in ascending order
+    private static final class PostingsBuilder {
+
+        private long[] ids = new long[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void add(long id, float weight) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ids[size] = id;
+            weights[size++] = weight;
+        }
+
+        Postings build() {
+            return new Postings(Arrays.copyOf(ids, size), Arrays.copyOf(weights, size));
+        }
+    }
+
+    private static final class PrefixMatch {
+
+        private final Postings postings;
+        private final boolean truncated;
+
+        PrefixMatch(Postings postings, boolean truncated) {
+            this.postings = postings;
+            this.truncated = truncated;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.library.management.search;
+
+import com.library.management.service.BookService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the book search index from a streaming scan of the catalog on startup. The new
+ * index is built off to the side and swapped in whole, so a rebuild never serves a partial one.
+ */
+@Component
+@Slf4j
+public class BookSearchIndexInitializer {
+
+    private final BookService bookService;
+    private final BookSearchIndex bookSearchIndex;
+
+    public BookSearchIndexInitializer(BookService bookService, BookSearchIndex bookSearchIndex) {
+        this.bookService = bookService;
+        this.bookSearchIndex = bookSearchIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        log.info("Rebuilding book search index");
+        bookSearchIndex.rebuild(bookService::streamAllBooks);
+        log.info("Book search index rebuilt in {} ms", System.currentTimeMillis() - start);
+    }
+}
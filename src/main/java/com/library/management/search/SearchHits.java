@@ -0,0 +1,17 @@
+package com.library.management.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Results of an index search, best first. Truncated means the last query token's prefix
+ * matched more terms than a search expands, so books matching only the others are missing.
+ */
+@Getter
+@AllArgsConstructor
+public class SearchHits<T> {
+    private final List<T> results;
+    private final boolean truncated;
+}
@@ -0,0 +1,470 @@
+package com.library.management.search;
+
+import com.library.management.model.User;
+import com.library.management.service.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory index over user name, username and email for the front desk's typeahead.
+ * <p>
+ * Query tokens match like in the {@link BookSearchIndex}: exactly, and the last one also as
+ * a prefix. A token that matches nothing as typed is corrected instead: the terms sharing the
+ * most trigrams with it are candidates, and those within one edit (two for tokens of six or
+ * more characters, adjacent transpositions counting as one) match at a lower weight. Every token
+ * must match; users are ranked by the summed field weights of their matching terms, ties
+ * going to the lower ID.
+ * <p>
+ * Postings are grouped by weight with IDs in ascending order, so a search walks them best
+ * score first and stops once no remaining user can enter the top results: a token shared
+ * by most users, such as a mail domain, costs no more than the limit. A query made only of
+ * very common tokens that rarely occur together is cut short after a fixed number of users,
+ * keeping the best found in that order.
+ * Reads are lock-free; writes are serialized.
+ */
+@Component
+@Slf4j
+public class UserSearchIndex {
+
+    private static final float USERNAME_WEIGHT = 3.0f;
+    private static final float NAME_WEIGHT = 2.0f;
+    private static final float EMAIL_WEIGHT = 1.0f;
+
+    // Prefix matches score lower than whole-token matches, and corrected tokens lower still
+    private static final float PREFIX_FACTOR = 0.5f;
+    private static final float FUZZY_FACTOR = 0.4f;
+
+    private static final int MAX_PREFIX_EXPANSIONS = 256;
+    private static final int MAX_FUZZY_EXPANSIONS = 64;
+    // Shorter tokens are too ambiguous to correct
+    private static final int MIN_FUZZY_LENGTH = 3;
+    // Bounds on the trigram postings read and the edit distances computed to correct a token
+    private static final int MAX_TRIGRAM_POSTINGS = 20_000;
+    private static final int MAX_FUZZY_CANDIDATES = 256;
+    // Upper bound on the users scored per search; only queries made of very common tokens reach it
+    private static final int MAX_SCORED_USERS = 10_000;
+
+    // term -> users containing it
+    private final Map<String, Postings> postings = new ConcurrentHashMap<>();
+    // Sorted term dictionary for prefix lookups
+    private final NavigableSet<String> terms = new ConcurrentSkipListSet<>();
+    // trigram -> terms containing it, for correcting misspelled tokens
+    private final Map<String, Set<String>> trigrams = new ConcurrentHashMap<>();
+    // user ID -> (term -> weight), needed to unindex a user precisely
+    private final Map<Long, Map<String, Float>> documents = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    /**
+     * Adds or replaces a user in the index.
+     */
+    public synchronized void index(User user) {
+        removeDocument(user.getId());
+
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, user.getUsername(), USERNAME_WEIGHT);
+        addField(weights, user.getName(), NAME_WEIGHT);
+        addField(weights, user.getEmail(), EMAIL_WEIGHT);
+
+        weights.forEach((term, weight) -> {
+            if (!postings.containsKey(term)) {
+                terms.add(term);
+                for (String trigram : trigramsOf(term, false)) {
+                    trigrams.computeIfAbsent(trigram, t -> ConcurrentHashMap.newKeySet()).add(term);
+                }
+            }
+            postings.computeIfAbsent(term, t -> new Postings()).add(user.getId(), weight);
+        });
+        documents.put(user.getId(), weights);
+    }
+
+    public synchronized void remove(Long userId) {
+        removeDocument(userId);
+    }
+
+    public synchronized void clear() {
+        ready = false;
+        postings.clear();
+        terms.clear();
+        trigrams.clear();
+        documents.clear();
+    }
+
+    /**
+     * Marks the index as fully built; until then callers should fall back to the database.
+     */
+    public void markReady() {
+        ready = true;
+        log.info("User search index ready with {} users and {} terms", documents.size(), terms.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Indexes the user once the surrounding transaction commits, or immediately
+     * when there is none, so rolled-back writes never reach the index.
+     */
+    public void indexAfterCommit(User user) {
+        AfterCommit.run(() -> index(user));
+    }
+
+    public void removeAfterCommit(Long userId) {
+        AfterCommit.run(() -> remove(userId));
+    }
+
+    /**
+     * Returns the IDs of the best matching users, highest score first.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> tokens = Tokenizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        List<Map<String, Float>> expansions = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            Map<String, Float> expansion = expand(tokens.get(i), i == tokens.size() - 1);
+            if (expansion.isEmpty()) {
+                return Collections.emptyList();
+            }
+            expansions.add(expansion);
+        }
+
+        // Candidates come from the most selective token; the others only filter and score them
+        expansions.sort(Comparator.comparingLong(this::postingCount));
+        Map<String, Float> driving = expansions.get(0);
+        List<Map<String, Float>> others = expansions.subList(1, expansions.size());
+        float othersMax = 0;
+        for (Map<String, Float> expansion : others) {
+            othersMax += maxScore(expansion);
+        }
+
+        List<Bucket> buckets = new ArrayList<>();
+        driving.forEach((term, factor) -> {
+            Postings users = postings.get(term);
+            if (users != null) {
+                users.byWeight.forEach((weight, ids) -> buckets.add(new Bucket(weight * factor, ids)));
+            }
+        });
+        buckets.sort(Comparator.comparingDouble((Bucket bucket) -> bucket.score).reversed());
+
+        // Min-heap of the current best candidates; ties prefer the lower (older) ID
+        PriorityQueue<Map.Entry<Long, Float>> heap = new PriorityQueue<>(limit + 1, (a, b) -> {
+            int byScore = Float.compare(a.getValue(), b.getValue());
+            return byScore != 0 ? byScore : Long.compare(b.getKey(), a.getKey());
+        });
+        // Each term has a user in one bucket only, so duplicates need tracking across terms alone
+        Set<Long> seen = driving.size() > 1 ? new HashSet<>() : null;
+        int scored = 0;
+        for (Bucket bucket : buckets) {
+            float bound = bucket.score + othersMax;
+            if (heap.size() == limit && bound < heap.peek().getValue()) {
+                break;
+            }
+            for (Long id : bucket.ids) {
+                if (heap.size() == limit) {
+                    Map.Entry<Long, Float> worst = heap.peek();
+                    // IDs only grow from here on, so the rest of the bucket cannot win a tie either
+                    if (bound < worst.getValue() || (bound == worst.getValue() && id > worst.getKey())) {
+                        break;
+                    }
+                }
+                // A user's first bucket is its best one for this token
+                if (seen != null && !seen.add(id)) {
+                    continue;
+                }
+                if (++scored > MAX_SCORED_USERS) {
+                    return drain(heap);
+                }
+                Float score = score(id, bucket.score, others);
+                if (score != null) {
+                    heap.offer(Map.entry(id, score));
+                    if (heap.size() > limit) {
+                        heap.poll();
+                    }
+                }
+            }
+        }
+        return drain(heap);
+    }
+
+    private static List<Long> drain(PriorityQueue<Map.Entry<Long, Float>> heap) {
+        List<Long> ids = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ids.add(heap.poll().getKey());
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    // The terms a query token matches, with the factor their weights are scaled by
+    private Map<String, Float> expand(String token, boolean allowPrefix) {
+        Map<String, Float> expansion = new HashMap<>();
+        if (postings.containsKey(token)) {
+            expansion.put(token, 1.0f);
+        }
+        if (allowPrefix) {
+            int expanded = 0;
+            for (String term : terms.subSet(token, false, token + Character.MAX_VALUE, false)) {
+                if (++expanded > MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                expansion.put(term, PREFIX_FACTOR);
+            }
+        }
+        if (expansion.isEmpty() && token.length() >= MIN_FUZZY_LENGTH) {
+            expansion = correct(token, allowPrefix);
+        }
+        return expansion;
+    }
+
+    private Map<String, Float> correct(String token, boolean allowPrefix) {
+        List<Set<String>> candidateLists = new ArrayList<>();
+        for (String trigram : trigramsOf(token, allowPrefix)) {
+            Set<String> candidates = trigrams.get(trigram);
+            if (candidates != null) {
+                candidateLists.add(candidates);
+            }
+        }
+        // Count the trigrams each term shares with the token, rarest trigrams first: within the
+        // budget, the terms sharing its distinctive part are counted before those that merely
+        // share its first letter
+        candidateLists.sort(Comparator.comparingInt(Set::size));
+        Map<String, Integer> shared = new HashMap<>();
+        int budget = MAX_TRIGRAM_POSTINGS;
+        for (Set<String> candidates : candidateLists) {
+            for (String term : candidates) {
+                if (budget-- == 0) {
+                    break;
+                }
+                shared.merge(term, 1, Integer::sum);
+            }
+            if (budget <= 0) {
+                break;
+            }
+        }
+
+        // Only the terms sharing the most trigrams are worth an edit distance
+        PriorityQueue<Map.Entry<String, Integer>> closest =
+                new PriorityQueue<>(MAX_FUZZY_CANDIDATES + 1, Map.Entry.comparingByValue());
+        for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+            if (closest.size() < MAX_FUZZY_CANDIDATES || entry.getValue() > closest.peek().getValue()) {
+                closest.offer(entry);
+                if (closest.size() > MAX_FUZZY_CANDIDATES) {
+                    closest.poll();
+                }
+            }
+        }
+        int maxEdits = token.length() < 6 ? 1 : 2;
+        Map<String, Integer> distances = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : closest) {
+            int distance = distance(token, entry.getKey(), allowPrefix, maxEdits);
+            if (distance <= maxEdits) {
+                distances.put(entry.getKey(), distance);
+            }
+        }
+        return best(distances);
+    }
+
+    private static Map<String, Float> best(Map<String, Integer> distances) {
+        Map<String, Float> expansion = new HashMap<>();
+        distances.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .limit(MAX_FUZZY_EXPANSIONS)
+                .forEach(entry -> expansion.put(entry.getKey(), FUZZY_FACTOR / entry.getValue()));
+        return expansion;
+    }
+
+    private long postingCount(Map<String, Float> expansion) {
+        long count = 0;
+        for (String term : expansion.keySet()) {
+            Postings users = postings.get(term);
+            count += users != null ? users.size : 0;
+        }
+        return count;
+    }
+
+    private float maxScore(Map<String, Float> expansion) {
+        float max = 0;
+        for (Map.Entry<String, Float> entry : expansion.entrySet()) {
+            Postings users = postings.get(entry.getKey());
+            if (users != null) {
+                max = Math.max(max, users.maxWeight() * entry.getValue());
+            }
+        }
+        return max;
+    }
+
+    // The user's total score, or null if it misses one of the other tokens
+    private Float score(Long id, float score, List<Map<String, Float>> others) {
+        Map<String, Float> document = documents.get(id);
+        if (document == null) {
+            // Removed since its postings were read
+            return null;
+        }
+        for (Map<String, Float> expansion : others) {
+            float best = 0;
+            for (Map.Entry<String, Float> entry : document.entrySet()) {
+                Float factor = expansion.get(entry.getKey());
+                if (factor != null) {
+                    best = Math.max(best, entry.getValue() * factor);
+                }
+            }
+            if (best == 0) {
+                return null;
+            }
+            score += best;
+        }
+        return score;
+    }
+
+    /**
+     * Optimal string alignment distance between the token and the term, or the closest prefix
+     * of the term if the token is still being typed. Anything above maxEdits is reported as
+     * maxEdits + 1.
+     */
+    static int distance(String token, String term, boolean prefix, int maxEdits) {
+        int n = token.length();
+        int m = prefix ? Math.min(term.length(), n + maxEdits) : term.length();
+        if (m < n - maxEdits || (!prefix && m > n + maxEdits)) {
+            return maxEdits + 1;
+        }
+        int[][] d = new int[n + 1][m + 1];
+        for (int j = 0; j <= m; j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            d[i][0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= m; j++) {
+                int cost = token.charAt(i - 1) == term.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && token.charAt(i - 1) == term.charAt(j - 2)
+                        && token.charAt(i - 2) == term.charAt(j - 1)) {
+                    value = Math.min(value, d[i - 2][j - 2] + 1);
+                }
+                d[i][j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            // No later row can get below the smallest value of this one
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+        }
+        int distance = d[n][m];
+        if (prefix) {
+            for (int j = 0; j < m; j++) {
+                distance = Math.min(distance, d[n][j]);
+            }
+        }
+        return Math.min(distance, maxEdits + 1);
+    }
+
+    /**
+     * Trigrams of the term padded with two leading blanks and, unless the term may still
+     * continue, one trailing blank, so short terms and word boundaries yield trigrams too.
+     */
+    static List<String> trigramsOf(String term, boolean open) {
+        String padded = "  " + term + (open ? "" : " ");
+        List<String> result = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    private static void addField(Map<String, Float> weights, String value, float weight) {
+        for (String token : Tokenizer.tokenize(value)) {
+            weights.merge(token, weight, Float::sum);
+        }
+    }
+
+    private void removeDocument(Long userId) {
+        Map<String, Float> previous = documents.remove(userId);
+        if (previous == null) {
+            return;
+        }
+        for (Map.Entry<String, Float> entry : previous.entrySet()) {
+            String term = entry.getKey();
+            Postings users = postings.get(term);
+            if (users != null) {
+                users.remove(userId, entry.getValue());
+                if (users.size == 0) {
+                    postings.remove(term);
+                    terms.remove(term);
+                    for (String trigram : trigramsOf(term, false)) {
+                        Set<String> containing = trigrams.get(trigram);
+                        if (containing != null) {
+                            containing.remove(term);
+                            if (containing.isEmpty()) {
+                                trigrams.remove(trigram);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // The users of one term, grouped by the term's weight for them, best weight first
+    private static final class Postings {
+
+        private final NavigableMap<Float, NavigableSet<Long>> byWeight =
+                new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+        // Maintained here, as the size of a skip list is a full scan; writes are serialized
+        private volatile int size;
+
+        void add(Long id, float weight) {
+            if (byWeight.computeIfAbsent(weight, w -> new ConcurrentSkipListSet<>()).add(id)) {
+                size++;
+            }
+        }
+
+        void remove(Long id, float weight) {
+            NavigableSet<Long> ids = byWeight.get(weight);
+            if (ids != null && ids.remove(id)) {
+                size--;
+                if (ids.isEmpty()) {
+                    byWeight.remove(weight);
+                }
+            }
+        }
+
+        float maxWeight() {
+            Map.Entry<Float, NavigableSet<Long>> best = byWeight.firstEntry();
+            return best != null ? best.getKey() : 0;
+        }
+    }
+
+    private static final class Bucket {
+
+        private final float score;
+        private final NavigableSet<Long> ids;
+
+        Bucket(float score, NavigableSet<Long> ids) {
+            this.score = score;
+            this.ids = ids;
+        }
+    }
+}
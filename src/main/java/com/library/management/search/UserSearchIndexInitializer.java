@@ -0,0 +1,33 @@
+package com.library.management.search;
+
+import com.library.management.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the user search index from a streaming scan of the users table on startup.
+ */
+@Component
+@Slf4j
+public class UserSearchIndexInitializer {
+
+    private final UserService userService;
+    private final UserSearchIndex userSearchIndex;
+
+    public UserSearchIndexInitializer(UserService userService, UserSearchIndex userSearchIndex) {
+        this.userService = userService;
+        this.userSearchIndex = userSearchIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        log.info("Rebuilding user search index");
+        userSearchIndex.clear();
+        userService.streamAllUsers(userSearchIndex::index);
+        userSearchIndex.markReady();
+        log.info("User search index rebuilt in {} ms", System.currentTimeMillis() - start);
+    }
+}
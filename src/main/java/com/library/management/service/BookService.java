@@ -1,38 +1,97 @@
 package com.library.management.service;
 
+import com.library.management.config.CacheConfig;
+import com.library.management.dto.ResourceVersion;
 import com.library.management.exception.ResourceNotFoundException;
 import com.library.management.model.Book;
+import com.library.management.push.AvailabilityBroadcaster;
+import com.library.management.repository.ArchivedLoanRepository;
 import com.library.management.repository.BookRepository;
+import com.library.management.repository.HoldRepository;
+import com.library.management.search.BookSearchIndex;
+import com.library.management.search.SearchHits;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class BookService {
 
     private final BookRepository bookRepository;
+    private final ArchivedLoanRepository archivedLoanRepository;
+    private final HoldRepository holdRepository;
+    private final EntityManager entityManager;
+    private final BookSearchIndex bookSearchIndex;
+    private final CacheInvalidator cacheInvalidator;
+    private final AvailabilityBroadcaster availabilityBroadcaster;
+    private final HoldService holdService;
 
     @Autowired
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository, ArchivedLoanRepository archivedLoanRepository,
+                       HoldRepository holdRepository, EntityManager entityManager, BookSearchIndex bookSearchIndex,
+                       CacheInvalidator cacheInvalidator, AvailabilityBroadcaster availabilityBroadcaster,
+                       HoldService holdService) {
         this.bookRepository = bookRepository;
+        this.archivedLoanRepository = archivedLoanRepository;
+        this.holdRepository = holdRepository;
+        this.entityManager = entityManager;
+        this.bookSearchIndex = bookSearchIndex;
+        this.cacheInvalidator = cacheInvalidator;
+        this.availabilityBroadcaster = availabilityBroadcaster;
+        this.holdService = holdService;
     }
 
+    @Transactional(readOnly = true)
     public List<Book> getAllBooks() {
-        log.info("Fetching all books");
+        log.debug("Fetching all books");
         return bookRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public List<Book> getBooksPage(Long after, int limit) {
+        log.debug("Fetching up to {} books after ID: {}", limit, after);
+        return bookRepository.findByIdGreaterThanOrderByIdAsc(after != null ? after : 0L, PageRequest.ofSize(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllBooks(Consumer<Book> consumer) {
+        log.debug("Streaming all books");
+        StreamingSupport.forEachDetached(bookRepository.streamAll(), entityManager, consumer);
+    }
+
+    /**
+     * Streams the catalog for reporting in ID order, optionally restricted to one genre.
+     */
+    @Transactional(readOnly = true)
+    public void exportBooks(String genre, Consumer<Book> consumer) {
+        log.debug("Exporting books: genre={}", genre);
+        StreamingSupport.forEachDetached(bookRepository.streamByGenre(genre), entityManager, consumer);
+    }
+
+    @Transactional(readOnly = true)
     public List<Book> getAvailableBooks() {
-        log.info("Fetching all available books");
+        log.debug("Fetching all available books");
         return bookRepository.findAllAvailableBooks();
     }
 
+    // Deliberately not @Transactional: a cache hit must not open a transaction, and the
+    // repository lookup on a miss already runs read-only
+    @Cacheable(CacheConfig.BOOKS)
     public Book getBookById(Long id) {
-        log.info("Fetching book with ID: {}", id);
+        log.debug("Fetching book with ID: {}", id);
         return bookRepository.findById(id)
                 .orElseThrow(() -> {
                     log.error("Book not found with ID: {}", id);
@@ -40,8 +99,31 @@ public class BookService {
                 });
     }
 
+    /**
+     * The validators of a book for conditional GETs, read without loading the book.
+     */
+    @Transactional(readOnly = true)
+    public ResourceVersion getBookVersion(Long id) {
+        return bookRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + id));
+    }
+
+    @Transactional(readOnly = true)
+    public ResourceVersion getBookVersionByIsbn(String isbn) {
+        return bookRepository.findVersionByIsbn(isbn)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with ISBN: " + isbn));
+    }
+
+    /**
+     * Version of the catalog as a whole; changes whenever any book does.
+     */
+    public ResourceVersion getCatalogVersion() {
+        return cacheInvalidator.getBookCollectionVersion();
+    }
+
+    @Cacheable(CacheConfig.BOOKS_BY_ISBN)
     public Book getBookByIsbn(String isbn) {
-        log.info("Fetching book with ISBN: {}", isbn);
+        log.debug("Fetching book with ISBN: {}", isbn);
         return bookRepository.findByIsbn(isbn)
                 .orElseThrow(() -> {
                     log.error("Book not found with ISBN: {}", isbn);
@@ -49,9 +131,25 @@ public class BookService {
                 });
     }
 
-    public List<Book> searchBooks(String keyword) {
-        log.info("Searching books with keyword: {}", keyword);
-        return bookRepository.searchBooks(keyword);
+    @Transactional(readOnly = true)
+    public SearchHits<Book> searchBooks(String keyword, int limit) {
+        log.debug("Searching books with keyword: {}", keyword);
+
+        // Until the startup rebuild finishes, fall back to the database scan
+        if (!bookSearchIndex.isReady()) {
+            return new SearchHits<>(bookRepository.searchBooks(keyword).stream().limit(limit).toList(), false);
+        }
+
+        SearchHits<Long> hits = bookSearchIndex.search(keyword, limit);
+        List<Long> ids = hits.getResults();
+        Map<Long, Book> booksById = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        // Keep the index's relevance order
+        List<Book> books = ids.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new SearchHits<>(books, hits.isTruncated());
     }
 
     @Transactional
@@ -70,6 +168,9 @@ public class BookService {
         }
 
         Book savedBook = bookRepository.save(book);
+        bookSearchIndex.indexAfterCommit(savedBook);
+        // Nothing is cached for a new book, but this advances the catalog version of list ETags
+        cacheInvalidator.evictBook(savedBook.getId(), savedBook.getIsbn());
         log.info("Book created successfully with ID: {}", savedBook.getId());
         return savedBook;
     }
@@ -79,6 +180,7 @@ public class BookService {
         log.info("Updating book with ID: {}", id);
 
         Book book = getBookById(id);
+        String oldIsbn = book.getIsbn();
 
         // Check if ISBN is being changed and already exists
         if (!book.getIsbn().equals(bookDetails.getIsbn()) &&
@@ -113,6 +215,15 @@ public class BookService {
         book.setAvailableCopies(newTotal - borrowed);
 
         Book updatedBook = bookRepository.save(book);
+        bookSearchIndex.indexAfterCommit(updatedBook);
+        cacheInvalidator.evictBook(id, oldIsbn, updatedBook.getIsbn());
+        if (updatedBook.getAvailableCopies() != oldAvailable) {
+            availabilityBroadcaster.bookChangedAfterCommit(id, updatedBook.getAvailableCopies() - oldAvailable);
+        }
+        // Added copies of a queued title go to its waiting holds now, not at the next hold sweep
+        if (updatedBook.getAvailableCopies() > 0 && updatedBook.getWaitingHolds() > 0) {
+            holdService.fillFromShelf(List.of(id), LocalDateTime.now());
+        }
         log.info("Book updated successfully: {}", updatedBook.getTitle());
         return updatedBook;
     }
@@ -129,7 +240,13 @@ public class BookService {
             throw new IllegalStateException("Cannot delete book with outstanding loans. Please ensure all copies are returned first.");
         }
 
+        // Recent loans cascade with the book; archived history has no foreign key to do so
+        archivedLoanRepository.deleteByBookId(id);
+        // No copy is out, so no hold is READY; waiting holds go with the title
+        holdRepository.deleteByBookId(id);
         bookRepository.delete(book);
+        bookSearchIndex.removeAfterCommit(id);
+        cacheInvalidator.evictBook(id, book.getIsbn());
         log.info("Book deleted successfully: {}", book.getTitle());
     }
 }
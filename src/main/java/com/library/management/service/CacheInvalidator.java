@@ -0,0 +1,99 @@
+package com.library.management.service;
+
+import com.library.management.config.CacheConfig;
+import com.library.management.dto.ResourceVersion;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Evicts every cache key a book or user can be looked up by. Called from each
+ * write path so cached entities never outlive the row they were read from.
+ * <p>
+ * For the same reason it also keeps the collection versions that list endpoints hand out as
+ * ETags: each eviction advances the version of its collection once the transaction commits.
+ * Versions live in memory and start over, under a new prefix, when the application restarts.
+ */
+@Component
+public class CacheInvalidator {
+
+    private final CacheManager cacheManager;
+    private final CollectionVersion books;
+    private final CollectionVersion users;
+
+    public CacheInvalidator(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+        Instant start = Instant.now();
+        this.books = new CollectionVersion("books", start);
+        this.users = new CollectionVersion("users", start);
+    }
+
+    public void evictBook(Long id, String... isbns) {
+        evict(CacheConfig.BOOKS, id);
+        for (String isbn : isbns) {
+            evict(CacheConfig.BOOKS_BY_ISBN, isbn);
+        }
+        advanceAfterCommit(books);
+    }
+
+    public void evictUser(Long id, String... usernames) {
+        evict(CacheConfig.USERS, id);
+        for (String username : usernames) {
+            evict(CacheConfig.USERS_BY_USERNAME, username);
+        }
+        advanceAfterCommit(users);
+    }
+
+    public ResourceVersion getBookCollectionVersion() {
+        return books.current.get();
+    }
+
+    public ResourceVersion getUserCollectionVersion() {
+        return users.current.get();
+    }
+
+    // For bulk transitions that touch too many rows to evict one by one
+    public void evictAllCirculating() {
+        for (String cacheName : new String[]{CacheConfig.BOOKS, CacheConfig.BOOKS_BY_ISBN,
+                CacheConfig.USERS, CacheConfig.USERS_BY_USERNAME}) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        advanceAfterCommit(books);
+        advanceAfterCommit(users);
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+
+    // Only after the commit: advancing earlier would let a reader tag the pre-commit state with the new version
+    private static void advanceAfterCommit(CollectionVersion version) {
+        AfterCommit.run(version::advance);
+    }
+
+    private static final class CollectionVersion {
+        private final String prefix;
+        private final AtomicLong changes = new AtomicLong();
+        private final AtomicReference<ResourceVersion> current;
+
+        CollectionVersion(String name, Instant start) {
+            this.prefix = name + "." + Long.toString(start.toEpochMilli(), 36) + ".";
+            this.current = new AtomicReference<>(new ResourceVersion(prefix + 0, start));
+        }
+
+        void advance() {
+            // A retried update only skips a number
+            current.updateAndGet(previous -> new ResourceVersion(prefix + changes.incrementAndGet(), Instant.now()));
+        }
+    }
+}
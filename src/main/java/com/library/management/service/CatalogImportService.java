@@ -0,0 +1,249 @@
+package com.library.management.service;
+
+import com.library.management.catalog.CatalogReader;
+import com.library.management.catalog.CatalogRecord;
+import com.library.management.dto.ImportEvent;
+import com.library.management.model.Book;
+import com.library.management.repository.BookRepository;
+import com.library.management.search.BookSearchIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Bulk catalog import. Records are pulled from the reader one at a time, validated, checked
+ * against the ISBNs already seen in this feed, and upserted by ISBN with JDBC batches of
+ * {@code commitSize} rows, one transaction per batch. New ISBNs are inserted; known ones get
+ * their descriptive fields replaced and their total copies set to the feed's count, moving the
+ * shelf count by the difference, so delivering the same feed twice changes nothing. The total
+ * never drops below the copies out on loan or held for pickup. Copies added to a title with
+ * holds waiting go to those holds in the same transaction.
+ * <p>
+ * Memory is bounded by one batch plus the set of ISBNs seen so far. If a batch fails in the
+ * database, its rows are retried one by one so only the offending rows are rejected.
+ */
+@Service
+@Slf4j
+public class CatalogImportService {
+
+    static final String UPSERT_SQL = "MERGE INTO books b USING (VALUES (CAST(? AS VARCHAR(255)), " +
+            "CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), CAST(? AS DATE), CAST(? AS VARCHAR(255)), " +
+            "CAST(? AS VARCHAR(1000)), CAST(? AS INTEGER))) " +
+            "AS s (isbn, title, author, publication_date, genre, description, copies) ON b.isbn = s.isbn " +
+            "WHEN MATCHED THEN UPDATE SET title = s.title, author = s.author, " +
+            "publication_date = s.publication_date, genre = s.genre, " +
+            "description = COALESCE(s.description, b.description), " +
+            "total_copies = GREATEST(s.copies, b.total_copies - b.available_copies), " +
+            "available_copies = GREATEST(s.copies, b.total_copies - b.available_copies) " +
+            "- (b.total_copies - b.available_copies), " +
+            "version = b.version + 1, last_modified_at = CURRENT_TIMESTAMP " +
+            "WHEN NOT MATCHED THEN INSERT (isbn, title, author, publication_date, genre, description, " +
+            "total_copies, available_copies) " +
+            "VALUES (s.isbn, s.title, s.author, s.publication_date, s.genre, s.description, s.copies, s.copies)";
+
+    private static final int MAX_TEXT = 255;
+    private static final int MAX_DESCRIPTION = 1000;
+    private static final int MAX_COPIES = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookRepository bookRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final CacheInvalidator cacheInvalidator;
+    private final HoldService holdService;
+    private final int defaultCommitSize;
+    private final int maxCommitSize;
+
+    public CatalogImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                BookRepository bookRepository, BookSearchIndex bookSearchIndex,
+                                CacheInvalidator cacheInvalidator, HoldService holdService,
+                                @Value("${library.import.commit-size:1000}") int defaultCommitSize,
+                                @Value("${library.import.max-commit-size:10000}") int maxCommitSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.bookRepository = bookRepository;
+        this.bookSearchIndex = bookSearchIndex;
+        this.cacheInvalidator = cacheInvalidator;
+        this.holdService = holdService;
+        this.defaultCommitSize = defaultCommitSize;
+        this.maxCommitSize = maxCommitSize;
+    }
+
+    /**
+     * Imports the whole feed, reporting every rejected record, the totals after each
+     * committed batch, and finally the summary, which is also returned. A feed that becomes
+     * unreadable is reported as an error at that position; the records before it are kept.
+     *
+     * @param commitSize rows per batch and transaction; null for the configured default
+     */
+    public ImportEvent importCatalog(CatalogReader reader, Integer commitSize, Consumer<ImportEvent> listener) {
+        int batchSize = resolveCommitSize(commitSize);
+        log.info("Importing catalog feed in batches of {}", batchSize);
+
+        Set<String> seen = new HashSet<>();
+        List<CatalogRecord> batch = new ArrayList<>(batchSize);
+        List<Long> positions = new ArrayList<>(batchSize);
+        long read = 0;
+        long upserted = 0;
+        long rejected = 0;
+
+        while (true) {
+            CatalogRecord record;
+            try {
+                record = reader.next();
+            } catch (IllegalArgumentException e) {
+                read++;
+                rejected++;
+                listener.accept(ImportEvent.error(reader.position(), null, e.getMessage()));
+                continue;
+            } catch (IOException e) {
+                // The rest of the feed is unreadable; keep what was read so far
+                log.warn("Catalog feed unreadable after record {}: {}", reader.position(), e.getMessage());
+                listener.accept(ImportEvent.error(reader.position() + 1, null, "Feed unreadable: " + e.getMessage()));
+                break;
+            }
+            if (record == null) {
+                break;
+            }
+            read++;
+
+            String problem = validate(record);
+            if (problem == null && !seen.add(record.getIsbn())) {
+                problem = "Duplicate ISBN in feed: " + record.getIsbn();
+            }
+            if (problem != null) {
+                rejected++;
+                listener.accept(ImportEvent.error(reader.position(), record.getIsbn(), problem));
+                continue;
+            }
+
+            batch.add(record);
+            positions.add(reader.position());
+            if (batch.size() == batchSize) {
+                long written = flush(batch, positions, listener);
+                upserted += written;
+                rejected += batch.size() - written;
+                batch.clear();
+                positions.clear();
+                listener.accept(ImportEvent.progress(read, upserted, rejected));
+            }
+        }
+        if (!batch.isEmpty()) {
+            long written = flush(batch, positions, listener);
+            upserted += written;
+            rejected += batch.size() - written;
+        }
+
+        ImportEvent summary = ImportEvent.summary(read, upserted, rejected);
+        listener.accept(summary);
+        log.info("Catalog import finished: {} records read, {} upserted, {} rejected", read, upserted, rejected);
+        return summary;
+    }
+
+    /**
+     * Returns the batch size to use; callers streaming a response can validate up front.
+     */
+    public int resolveCommitSize(Integer commitSize) {
+        if (commitSize == null) {
+            return defaultCommitSize;
+        }
+        if (commitSize < 1 || commitSize > maxCommitSize) {
+            throw new IllegalArgumentException("commitSize must be between 1 and " + maxCommitSize);
+        }
+        return commitSize;
+    }
+
+    // Returns the number of rows written; rejected rows are reported to the listener
+    private long flush(List<CatalogRecord> batch, List<Long> positions, Consumer<ImportEvent> listener) {
+        try {
+            upsert(batch);
+            return batch.size();
+        } catch (DataAccessException e) {
+            log.warn("Import batch of {} rows failed, retrying row by row: {}", batch.size(), e.getMessage());
+        }
+        long written = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            CatalogRecord record = batch.get(i);
+            try {
+                upsert(List.of(record));
+                written++;
+            } catch (DataAccessException e) {
+                listener.accept(ImportEvent.error(positions.get(i), record.getIsbn(),
+                        e.getMostSpecificCause().getMessage()));
+            }
+        }
+        return written;
+    }
+
+    private void upsert(List<CatalogRecord> records) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, records, records.size(), (ps, record) -> {
+                ps.setString(1, record.getIsbn());
+                ps.setString(2, record.getTitle());
+                ps.setString(3, record.getAuthor());
+                ps.setDate(4, Date.valueOf(record.getPublicationDate()));
+                ps.setString(5, record.getGenre());
+                ps.setString(6, record.getDescription());
+                ps.setInt(7, record.getCopies());
+            });
+            // Re-read the batch so the search index and caches see the merged rows once committed
+            List<Long> queued = new ArrayList<>();
+            for (Book book : bookRepository.findByIsbnIn(records.stream().map(CatalogRecord::getIsbn).toList())) {
+                bookSearchIndex.indexAfterCommit(book);
+                cacheInvalidator.evictBook(book.getId(), book.getIsbn());
+                if (book.getWaitingHolds() > 0) {
+                    queued.add(book.getId());
+                }
+            }
+            if (!queued.isEmpty()) {
+                holdService.fillFromShelf(queued, LocalDateTime.now());
+            }
+        });
+    }
+
+    // Mirrors the constraints on Book; returns the first problem, or null if the record is valid
+    private static String validate(CatalogRecord record) {
+        if (record.getIsbn() == null) {
+            return "ISBN is required";
+        }
+        if (record.getTitle() == null) {
+            return "Title is required";
+        }
+        if (record.getAuthor() == null) {
+            return "Author is required";
+        }
+        if (record.getGenre() == null) {
+            return "Genre is required";
+        }
+        if (record.getPublicationDate() == null) {
+            return "Publication date is required";
+        }
+        if (record.getPublicationDate().isAfter(LocalDate.now())) {
+            return "Publication date cannot be in the future: " + record.getPublicationDate();
+        }
+        if (record.getIsbn().length() > MAX_TEXT || record.getTitle().length() > MAX_TEXT
+                || record.getAuthor().length() > MAX_TEXT || record.getGenre().length() > MAX_TEXT) {
+            return "Field longer than " + MAX_TEXT + " characters";
+        }
+        if (record.getDescription() != null && record.getDescription().length() > MAX_DESCRIPTION) {
+            return "Description longer than " + MAX_DESCRIPTION + " characters";
+        }
+        if (record.getCopies() < 1 || record.getCopies() > MAX_COPIES) {
+            return "Copies must be between 1 and " + MAX_COPIES + ": " + record.getCopies();
+        }
+        return null;
+    }
+}
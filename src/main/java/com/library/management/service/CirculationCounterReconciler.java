@@ -0,0 +1,160 @@
+package com.library.management.service;
+
+import com.library.management.dto.CirculationCounts;
+import com.library.management.model.Book;
+import com.library.management.model.User;
+import com.library.management.repository.ArchivedLoanRepository;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.LoanRepository;
+import com.library.management.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Verifies the denormalized circulation counters on books and users against the loans
+ * table and repairs any that drifted, e.g. from a return racing the overdue sweep.
+ * <p>
+ * Both tables are walked in ID order, one page per transaction. Each page is row-locked
+ * first, so no circulation transition (nor the loan archiver) can move its counters while
+ * the reference counts for the page's ID range are aggregated over the loans table and
+ * the archive; only the mismatching rows are written.
+ */
+@Component
+@Lazy(false) // @Scheduled methods are only registered once the bean exists
+@Slf4j
+public class CirculationCounterReconciler {
+
+    public static final String REPAIRED_METRIC = "library.counters.repaired";
+
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final LoanRepository loanRepository;
+    private final ArchivedLoanRepository archivedLoanRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+
+    public CirculationCounterReconciler(BookRepository bookRepository, UserRepository userRepository,
+                                        LoanRepository loanRepository, ArchivedLoanRepository archivedLoanRepository,
+                                        CacheInvalidator cacheInvalidator,
+                                        TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                                        @Value("${library.counters.reconcile-batch-size:500}") int batchSize) {
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.loanRepository = loanRepository;
+        this.archivedLoanRepository = archivedLoanRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Reconciles every book and user; returns the number of rows repaired.
+     */
+    @Scheduled(cron = "${library.counters.reconcile-cron:0 30 3 * * *}")
+    public long reconcile() {
+        reconcileLock.lock();
+        try {
+            long books = reconcileAll(this::reconcileBookPage);
+            long users = reconcileAll(this::reconcileUserPage);
+            meterRegistry.counter(REPAIRED_METRIC, "owner", "book").increment(books);
+            meterRegistry.counter(REPAIRED_METRIC, "owner", "user").increment(users);
+            log.info("Circulation counter reconciliation repaired {} books and {} users", books, users);
+            return books + users;
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    // Runs one transaction per page; a page returns {last ID, rows repaired}, or null past the end of the table
+    private long reconcileAll(Function<Long, long[]> page) {
+        long after = 0;
+        long repaired = 0;
+        while (true) {
+            long from = after;
+            long[] result = transactionTemplate.execute(status -> page.apply(from));
+            if (result == null) {
+                return repaired;
+            }
+            after = result[0];
+            repaired += result[1];
+        }
+    }
+
+    private long[] reconcileBookPage(Long after) {
+        List<Book> books = bookRepository.findPageForUpdate(after, PageRequest.ofSize(batchSize));
+        if (books.isEmpty()) {
+            return null;
+        }
+        Long first = books.get(0).getId();
+        Long last = books.get(books.size() - 1).getId();
+        Map<Long, CirculationCounts> reference = byOwner(loanRepository.countCirculationByBookIdBetween(first, last),
+                archivedLoanRepository.countCirculationByBookIdBetween(first, last));
+
+        long repaired = 0;
+        for (Book book : books) {
+            CirculationCounts counts = reference.getOrDefault(book.getId(), CirculationCounts.none(book.getId()));
+            if (!counts.matches(book.getActiveLoans(), book.getLifetimeBorrows(), book.getOverdueLoans())) {
+                log.warn("Repairing circulation counters of book {}: active {} -> {}, lifetime {} -> {}, overdue {} -> {}",
+                        book.getId(), book.getActiveLoans(), counts.getActiveLoans(),
+                        book.getLifetimeBorrows(), counts.getLifetimeBorrows(),
+                        book.getOverdueLoans(), counts.getOverdueLoans());
+                book.setActiveLoans(counts.getActiveLoans());
+                book.setLifetimeBorrows(counts.getLifetimeBorrows());
+                book.setOverdueLoans(counts.getOverdueLoans());
+                cacheInvalidator.evictBook(book.getId(), book.getIsbn());
+                repaired++;
+            }
+        }
+        return new long[]{last, repaired};
+    }
+
+    private long[] reconcileUserPage(Long after) {
+        List<User> users = userRepository.findPageForUpdate(after, PageRequest.ofSize(batchSize));
+        if (users.isEmpty()) {
+            return null;
+        }
+        Long first = users.get(0).getId();
+        Long last = users.get(users.size() - 1).getId();
+        Map<Long, CirculationCounts> reference = byOwner(loanRepository.countCirculationByUserIdBetween(first, last),
+                archivedLoanRepository.countCirculationByUserIdBetween(first, last));
+
+        long repaired = 0;
+        for (User user : users) {
+            CirculationCounts counts = reference.getOrDefault(user.getId(), CirculationCounts.none(user.getId()));
+            if (!counts.matches(user.getActiveLoans(), user.getLifetimeBorrows(), user.getOverdueLoans())) {
+                log.warn("Repairing circulation counters of user {}: active {} -> {}, lifetime {} -> {}, overdue {} -> {}",
+                        user.getId(), user.getActiveLoans(), counts.getActiveLoans(),
+                        user.getLifetimeBorrows(), counts.getLifetimeBorrows(),
+                        user.getOverdueLoans(), counts.getOverdueLoans());
+                user.setActiveLoans(counts.getActiveLoans());
+                user.setLifetimeBorrows(counts.getLifetimeBorrows());
+                user.setOverdueLoans(counts.getOverdueLoans());
+                cacheInvalidator.evictUser(user.getId(), user.getUsername());
+                repaired++;
+            }
+        }
+        return new long[]{last, repaired};
+    }
+
+    private static Map<Long, CirculationCounts> byOwner(List<CirculationCounts> hot, List<CirculationCounts> archived) {
+        return Stream.concat(hot.stream(), archived.stream())
+                .collect(Collectors.toMap(CirculationCounts::getOwnerId, Function.identity(), CirculationCounts::plus));
+    }
+}
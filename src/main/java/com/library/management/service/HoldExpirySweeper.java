@@ -0,0 +1,82 @@
+package com.library.management.service;
+
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.HoldRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Expires READY holds whose pickup deadline has passed, in bounded batches, passing each
+ * set-aside copy to the next hold in its book's queue (or back to the shelf). It then hands
+ * any shelf copies of queued titles to their waiting holds; catalog updates and imports fill
+ * the queue as they add copies, so this only catches what a write path left behind.
+ * Each batch is one transaction in {@link HoldService}.
+ */
+@Component
+@Lazy(false) // @Scheduled methods are only registered once the bean exists
+@Slf4j
+public class HoldExpirySweeper {
+
+    static final String EXPIRED_METRIC = "library.holds.expired";
+
+    private final HoldRepository holdRepository;
+    private final BookRepository bookRepository;
+    private final HoldService holdService;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final ReentrantLock sweepLock = new ReentrantLock();
+
+    public HoldExpirySweeper(HoldRepository holdRepository, BookRepository bookRepository, HoldService holdService,
+                             MeterRegistry meterRegistry,
+                             @Value("${library.holds.sweep-batch-size:500}") int batchSize) {
+        this.holdRepository = holdRepository;
+        this.bookRepository = bookRepository;
+        this.holdService = holdService;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns the number of holds expired.
+     */
+    @Scheduled(cron = "${library.holds.sweep-cron:0 */5 * * * *}")
+    public int sweep() {
+        sweepLock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int expired = inBatches(page -> holdRepository.findExpiredIds(now, page),
+                    ids -> holdService.expireHolds(ids, now));
+            int filled = inBatches(bookRepository::findIdsWithIdleCopies, ids -> holdService.fillFromShelf(ids, now));
+            meterRegistry.counter(EXPIRED_METRIC).increment(expired);
+            log.info("Hold sweep expired {} holds and filled {} from the shelf", expired, filled);
+            return expired;
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    // Each processed batch leaves the query, so the next one always starts from the first page
+    private int inBatches(Function<PageRequest, List<Long>> query, Function<List<Long>, Integer> batch) {
+        int total = 0;
+        while (true) {
+            List<Long> ids = query.apply(PageRequest.ofSize(batchSize));
+            if (ids.isEmpty()) {
+                return total;
+            }
+            total += batch.apply(ids);
+            if (ids.size() < batchSize) {
+                return total;
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.library.management.service;
+
+import com.library.management.exception.ResourceNotFoundException;
+import com.library.management.model.Book;
+import com.library.management.model.Hold;
+import com.library.management.model.User;
+import com.library.management.push.AvailabilityBroadcaster;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.HoldRepository;
+import com.library.management.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-book FIFO hold queues for titles with no copy on the shelf.
+ * <p>
+ * A hold can only be placed while no copy is available. A copy that comes back while holds
+ * are waiting skips the shelf and goes to the oldest WAITING hold, which becomes READY until
+ * its pickup deadline; the HoldExpirySweeper passes copies that are not picked up in time on
+ * to the next hold. {@code Book.waitingHolds} mirrors the queue length, so returns only touch
+ * the holds table when a queue exists.
+ * <p>
+ * Every queue operation locks the book row before touching its holds, which serializes
+ * concurrent returns, pickups and cancellations of the same title.
+ */
+@Service
+@Slf4j
+public class HoldService {
+
+    private static final Set<Hold.HoldStatus> ACTIVE = Set.of(Hold.HoldStatus.WAITING, Hold.HoldStatus.READY);
+
+    private final HoldRepository holdRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final AvailabilityBroadcaster availabilityBroadcaster;
+    private final Duration pickupWindow;
+
+    public HoldService(HoldRepository holdRepository, BookRepository bookRepository, UserRepository userRepository,
+                       CacheInvalidator cacheInvalidator, AvailabilityBroadcaster availabilityBroadcaster,
+                       @Value("${library.holds.pickup-days:3}") int pickupDays) {
+        this.holdRepository = holdRepository;
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.availabilityBroadcaster = availabilityBroadcaster;
+        this.pickupWindow = Duration.ofDays(pickupDays);
+    }
+
+    @Transactional
+    public Hold placeHold(Long userId, Long bookId) {
+        log.info("Placing hold: User ID {} on Book ID {}", userId, bookId);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        if (!user.isActive()) {
+            log.error("User account is inactive: {}", user.getUsername());
+            throw new IllegalStateException("Cannot place holds with an inactive account");
+        }
+
+        // Locks the book; zero rows means it is missing or can simply be borrowed
+        if (bookRepository.enqueueHold(bookId) == 0) {
+            Book book = bookRepository.findById(bookId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + bookId));
+            log.error("Book is available, no hold needed: {}", book.getTitle());
+            throw new IllegalStateException("Book is available for borrowing: " + book.getTitle());
+        }
+        // Checked under the book lock, so two concurrent requests cannot both pass
+        if (holdRepository.existsByUserIdAndBookIdAndStatusIn(userId, bookId, ACTIVE)) {
+            log.error("User {} already holds book {}", userId, bookId);
+            throw new IllegalStateException("User already has a hold on this book");
+        }
+
+        Hold hold = holdRepository.save(Hold.builder()
+                .userId(userId)
+                .bookId(bookId)
+                .status(Hold.HoldStatus.WAITING)
+                .placedAt(LocalDateTime.now())
+                .build());
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + bookId));
+        cacheInvalidator.evictBook(bookId, book.getIsbn());
+        availabilityBroadcaster.holdPlacedAfterCommit(hold);
+        log.info("Hold {} placed; {} holds waiting for '{}'", hold.getId(), book.getWaitingHolds(), book.getTitle());
+        return hold;
+    }
+
+    @Transactional
+    public Hold cancelHold(Long holdId) {
+        log.info("Cancelling hold with ID: {}", holdId);
+        Long bookId = holdRepository.findBookIdById(holdId)
+                .orElseThrow(() -> new ResourceNotFoundException("Hold not found with ID: " + holdId));
+        Book book = lockBooks(List.of(bookId)).get(bookId);
+        // Read once the book is locked, so a concurrent return or expiry cannot move it on meanwhile
+        Hold hold = holdRepository.findById(holdId)
+                .orElseThrow(() -> new ResourceNotFoundException("Hold not found with ID: " + holdId));
+        if (!ACTIVE.contains(hold.getStatus())) {
+            log.error("Hold {} is already {}", holdId, hold.getStatus());
+            throw new IllegalStateException("Hold is already " + hold.getStatus());
+        }
+        close(hold, Hold.HoldStatus.CANCELLED, book, LocalDateTime.now());
+        return hold;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Hold> getHoldsByUser(Long userId) {
+        log.debug("Fetching holds for user with ID: {}", userId);
+        return holdRepository.findByUserIdOrderById(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Hold> getQueue(Long bookId) {
+        log.debug("Fetching hold queue for book with ID: {}", bookId);
+        return holdRepository.findByBookIdAndStatusOrderById(bookId, Hold.HoldStatus.WAITING);
+    }
+
+    /**
+     * Picks up the copy a READY hold set aside for the user, within the caller's transaction.
+     * Returns false if the user has no unexpired READY hold on the book.
+     */
+    public boolean pickUp(Long userId, Long bookId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (bookRepository.claimHeldCopy(bookId, userId, now) == 0) {
+            return false;
+        }
+        holdRepository.fulfil(userId, bookId, now);
+        log.info("User {} picked up the copy held for book {}", userId, bookId);
+        return true;
+    }
+
+    /**
+     * Like {@link #pickUp(Long, Long)}, for a book the caller has row-locked and loaded:
+     * the pickup is applied to the given book rather than with a bulk update.
+     */
+    public boolean pickUp(Book book, Long userId, LocalDateTime now) {
+        if (holdRepository.fulfil(userId, book.getId(), now) == 0) {
+            return false;
+        }
+        book.setActiveLoans(book.getActiveLoans() + 1);
+        book.setLifetimeBorrows(book.getLifetimeBorrows() + 1);
+        log.info("User {} picked up the copy held for book {}", userId, book.getId());
+        return true;
+    }
+
+    /**
+     * Releases a returned copy of a book whose queue was not empty when the guarded
+     * {@code BookRepository.releaseCopy} ran, within the caller's transaction, and applies
+     * the change to the given book. Returns the hold the copy was set aside for, or null if
+     * the queue had emptied meanwhile and the copy went to the shelf.
+     */
+    public Hold releaseCopyToQueue(Book book, long overdue) {
+        bookRepository.releaseCopyToQueue(book.getId(), overdue);
+        // The update above locked the book and the queue only changes under that lock:
+        // a WAITING hold now means the copy went to the queue rather than to the shelf
+        Hold next = holdRepository.findFirstByBookIdAndStatusOrderById(book.getId(), Hold.HoldStatus.WAITING)
+                .orElse(null);
+        if (next == null) {
+            book.setAvailableCopies(book.getAvailableCopies() + 1);
+            return null;
+        }
+        setAside(next, LocalDateTime.now());
+        book.setWaitingHolds(book.getWaitingHolds() - 1);
+        return next;
+    }
+
+    /**
+     * Gives a copy of a book locked by the caller to the next WAITING hold, or puts it on
+     * the shelf if the queue is empty. Returns the hold now waiting for pickup, or null.
+     */
+    public Hold offerCopy(Book book, LocalDateTime now) {
+        if (book.getWaitingHolds() <= 0) {
+            book.setAvailableCopies(book.getAvailableCopies() + 1);
+            return null;
+        }
+        Hold next = holdRepository.findFirstByBookIdAndStatusOrderById(book.getId(), Hold.HoldStatus.WAITING)
+                .orElseThrow(() -> new IllegalStateException("Hold queue of book " + book.getId() + " is empty"));
+        book.setWaitingHolds(book.getWaitingHolds() - 1);
+        setAside(next, now);
+        return next;
+    }
+
+    /**
+     * Expires the given holds that are still READY past their deadline and passes their copies
+     * on. Returns the number of holds expired.
+     */
+    @Transactional
+    public int expireHolds(Collection<Long> holdIds, LocalDateTime now) {
+        Map<Long, Book> books = lockBooks(holdRepository.findBookIdsByIdIn(holdIds));
+        List<Hold> expired = holdRepository.findAllById(holdIds).stream()
+                .filter(hold -> hold.getStatus() == Hold.HoldStatus.READY && !hold.getExpiresAt().isAfter(now))
+                .sorted(Comparator.comparing(Hold::getId))
+                .toList();
+        expired.forEach(hold -> close(hold, Hold.HoldStatus.EXPIRED, books.get(hold.getBookId()), now));
+        return expired.size();
+    }
+
+    /**
+     * Moves shelf copies of the given books to their waiting holds, for copies that arrived
+     * through catalog updates rather than returns. Returns the number of holds made READY.
+     */
+    @Transactional
+    public int fillFromShelf(Collection<Long> bookIds, LocalDateTime now) {
+        int filled = 0;
+        for (Book book : lockBooks(bookIds).values()) {
+            int taken = 0;
+            while (book.getAvailableCopies() > 0 && book.getWaitingHolds() > 0) {
+                book.setAvailableCopies(book.getAvailableCopies() - 1);
+                offerCopy(book, now);
+                taken++;
+            }
+            filled += taken;
+            cacheInvalidator.evictBook(book.getId(), book.getIsbn());
+            availabilityBroadcaster.bookChangedAfterCommit(book.getId(), -taken);
+        }
+        return filled;
+    }
+
+    /**
+     * Cancels a user's active holds and deletes their hold history, ahead of deleting the user.
+     */
+    @Transactional
+    public void deleteHoldsOfUser(Long userId) {
+        List<Long> bookIds = holdRepository.findBookIdsByUserIdAndStatusIn(userId, ACTIVE);
+        if (!bookIds.isEmpty()) {
+            Map<Long, Book> books = lockBooks(bookIds);
+            LocalDateTime now = LocalDateTime.now();
+            holdRepository.findByUserIdAndStatusInOrderById(userId, ACTIVE)
+                    .forEach(hold -> close(hold, Hold.HoldStatus.CANCELLED, books.get(hold.getBookId()), now));
+        }
+        holdRepository.deleteByUserId(userId);
+    }
+
+    // Ends an active hold; a copy set aside for it goes to the next hold or back to the shelf
+    private void close(Hold hold, Hold.HoldStatus status, Book book, LocalDateTime now) {
+        boolean copySetAside = hold.getStatus() == Hold.HoldStatus.READY;
+        hold.setStatus(status);
+        boolean shelved = false;
+        if (copySetAside) {
+            shelved = offerCopy(book, now) == null;
+        } else {
+            book.setWaitingHolds(book.getWaitingHolds() - 1);
+        }
+        cacheInvalidator.evictBook(book.getId(), book.getIsbn());
+        availabilityBroadcaster.bookChangedAfterCommit(book.getId(), shelved ? 1 : 0);
+        log.info("Hold {} on book {} is now {}", hold.getId(), book.getId(), status);
+    }
+
+    private void setAside(Hold hold, LocalDateTime now) {
+        hold.setStatus(Hold.HoldStatus.READY);
+        hold.setReadyAt(now);
+        hold.setExpiresAt(now.plus(pickupWindow));
+        holdRepository.save(hold);
+        log.info("Copy of book {} set aside for hold {} until {}", hold.getBookId(), hold.getId(), hold.getExpiresAt());
+    }
+
+    // Row-locks the books in ID order, the lock order every queue path shares
+    private Map<Long, Book> lockBooks(Collection<Long> bookIds) {
+        return bookRepository.findAllByIdForUpdate(bookIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+    }
+}
@@ -0,0 +1,98 @@
+package com.library.management.service;
+
+import com.library.management.repository.ArchivedLoanRepository;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.LoanRepository;
+import com.library.management.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves closed (RETURNED or LOST) loans whose due date is older than the configured age
+ * from {@code loans} to {@code loan_archive}, in bounded batches, so the hot table only
+ * holds open loans and recent history.
+ * <p>
+ * Each batch copies and deletes its loans in one transaction. It row-locks the affected
+ * books and users first: the counter reconciler aggregates both tables under the same
+ * locks, so it never sees a loan in both tables or in neither.
+ */
+@Component
+@Lazy(false) // @Scheduled methods are only registered once the bean exists
+@Slf4j
+public class LoanArchiver {
+
+    private final LoanRepository loanRepository;
+    private final ArchivedLoanRepository archivedLoanRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int minAgeDays;
+    private final int batchSize;
+    private final ReentrantLock archiveLock = new ReentrantLock();
+
+    public LoanArchiver(LoanRepository loanRepository, ArchivedLoanRepository archivedLoanRepository,
+                        BookRepository bookRepository, UserRepository userRepository,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${library.loan-archive.min-age-days:365}") int minAgeDays,
+                        @Value("${library.loan-archive.batch-size:500}") int batchSize) {
+        this.loanRepository = loanRepository;
+        this.archivedLoanRepository = archivedLoanRepository;
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.minAgeDays = minAgeDays;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Archives every eligible loan; returns the number of loans moved.
+     */
+    @Scheduled(cron = "${library.loan-archive.cron:0 30 1 * * *}")
+    public int archive() {
+        archiveLock.lock();
+        try {
+            return archiveBefore(LocalDate.now().minusDays(minAgeDays));
+        } finally {
+            archiveLock.unlock();
+        }
+    }
+
+    private int archiveBefore(LocalDate cutoff) {
+        LocalDate today = LocalDate.now();
+        int total = 0;
+
+        while (true) {
+            // Archived loans leave the table, so every page starts from the oldest remaining ID
+            List<Long> ids = loanRepository.findArchivableIds(cutoff, PageRequest.ofSize(batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer moved = transactionTemplate.execute(status -> {
+                bookRepository.findAllByIdForUpdate(loanRepository.findBookIdsByLoanIds(ids));
+                userRepository.findAllByIdForUpdate(loanRepository.findUserIdsByLoanIds(ids));
+                int copied = archivedLoanRepository.archive(ids, today);
+                int deleted = loanRepository.deleteClosedByIdIn(ids);
+                if (copied != deleted) {
+                    throw new IllegalStateException("Archived " + copied + " loans but removed " + deleted);
+                }
+                return deleted;
+            });
+            total += moved != null ? moved : 0;
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+
+        log.info("Loan archiver moved {} closed loans due before {} to the archive", total, cutoff);
+        return total;
+    }
+}
@@ -1,43 +1,194 @@
 package com.library.management.service;
 
+import com.library.management.dto.BatchItemResult;
+import com.library.management.dto.BorrowRequest;
+import com.library.management.dto.LoanPage;
+import com.library.management.dto.LoanReference;
+import com.library.management.dto.LoanSummary;
 import com.library.management.exception.ResourceNotFoundException;
+import com.library.management.journal.CirculationEventType;
+import com.library.management.journal.CirculationJournal;
+import com.library.management.model.ArchivedLoan;
 import com.library.management.model.Book;
 import com.library.management.model.Loan;
 import com.library.management.model.User;
+import com.library.management.push.AvailabilityBroadcaster;
+import com.library.management.repository.ArchivedLoanRepository;
 import com.library.management.repository.BookRepository;
 import com.library.management.repository.LoanRepository;
 import com.library.management.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class LoanService {
 
+    // Reads of a loan a guarded transition makes before giving up on one that keeps changing
+    private static final int TRANSITION_ATTEMPTS = 3;
+
     private final LoanRepository loanRepository;
+    private final ArchivedLoanRepository archivedLoanRepository;
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
+    private final UserService userService;
+    private final HoldService holdService;
+    private final CacheInvalidator cacheInvalidator;
+    private final EntityManager entityManager;
+    private final CirculationJournal circulationJournal;
+    private final AvailabilityBroadcaster availabilityBroadcaster;
+    private final int maxBatchSize;
 
     @Autowired
-    public LoanService(LoanRepository loanRepository, UserRepository userRepository, BookRepository bookRepository) {
+    public LoanService(LoanRepository loanRepository, ArchivedLoanRepository archivedLoanRepository,
+                       UserRepository userRepository, BookRepository bookRepository,
+                       UserService userService, HoldService holdService, CacheInvalidator cacheInvalidator,
+                       EntityManager entityManager,
+                       CirculationJournal circulationJournal, AvailabilityBroadcaster availabilityBroadcaster,
+                       @Value("${library.loans.max-batch-size:100}") int maxBatchSize) {
         this.loanRepository = loanRepository;
+        this.archivedLoanRepository = archivedLoanRepository;
         this.userRepository = userRepository;
         this.bookRepository = bookRepository;
+        this.userService = userService;
+        this.holdService = holdService;
+        this.cacheInvalidator = cacheInvalidator;
+        this.entityManager = entityManager;
+        this.circulationJournal = circulationJournal;
+        this.availabilityBroadcaster = availabilityBroadcaster;
+        this.maxBatchSize = maxBatchSize;
     }
 
+    @Transactional(readOnly = true)
     public List<Loan> getAllLoans() {
-        log.info("Fetching all loans");
+        log.debug("Fetching all loans");
         return loanRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public List<LoanSummary> getLoanSummariesPage(Long after, int limit) {
+        log.debug("Fetching up to {} loan summaries after ID: {}", limit, after);
+        return loanRepository.findSummaryPageAfter(after != null ? after : 0L, PageRequest.ofSize(limit));
+    }
+
+    /**
+     * A keyset page of loans in normalized form (see {@link LoanPage}): the page's summary
+     * query plus one IN query each for its books and users.
+     */
+    @Transactional(readOnly = true)
+    public LoanPage getNormalizedLoansPage(Long after, int limit) {
+        log.debug("Fetching up to {} normalized loans after ID: {}", limit, after);
+        List<LoanSummary> page = loanRepository.findSummaryPageAfter(after != null ? after : 0L,
+                PageRequest.ofSize(limit));
+        Set<Long> bookIds = page.stream().map(LoanSummary::getBookId).collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<Long> userIds = page.stream().map(LoanSummary::getUserId).collect(Collectors.toCollection(LinkedHashSet::new));
+        return new LoanPage(page.stream().map(LoanReference::from).toList(),
+                byId(bookIds, bookRepository.findAllById(bookIds), Book::getId),
+                byId(userIds, userRepository.findAllById(userIds), User::getId));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllLoanSummaries(Consumer<LoanSummary> consumer) {
+        log.debug("Streaming all loan summaries");
+        // Projections are not managed entities, so there is no persistence context to clear
+        try (Stream<LoanSummary> summaries = loanRepository.streamAllSummaries()) {
+            summaries.forEach(consumer);
+        }
+    }
+
+    /**
+     * Streams the loans matching the filters for reporting, live loans first and then the
+     * archived ones, each in ID order. Null filters match everything; the date range applies
+     * to the loan date and is inclusive.
+     */
+    @Transactional(readOnly = true)
+    public void exportLoanSummaries(Loan.LoanStatus status, LocalDate from, LocalDate to,
+                                    Consumer<LoanSummary> consumer) {
+        log.debug("Exporting loan summaries: status={}, from={}, to={}", status, from, to);
+        try (Stream<LoanSummary> summaries = loanRepository.streamSummaries(status, from, to)) {
+            summaries.forEach(consumer);
+        }
+        // Only closed loans are archived
+        if (status == null || status == Loan.LoanStatus.RETURNED || status == Loan.LoanStatus.LOST) {
+            try (Stream<LoanSummary> archived = archivedLoanRepository.streamSummaries(status, from, to)) {
+                archived.forEach(consumer);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public LoanSummary getLoanSummaryById(Long id) {
+        log.debug("Fetching loan summary with ID: {}", id);
+        return loanRepository.findSummaryById(id)
+                .orElseThrow(() -> {
+                    log.error("Loan not found with ID: {}", id);
+                    return new ResourceNotFoundException("Loan not found with ID: " + id);
+                });
+    }
+
+    /**
+     * Full loan history of a user: the hot table and the archive, merged in loan ID order.
+     */
+    @Transactional(readOnly = true)
+    public List<LoanSummary> getLoanSummariesByUser(Long userId) {
+        log.debug("Fetching loan summaries for user with ID: {}", userId);
+        List<LoanSummary> summaries = new ArrayList<>(loanRepository.findSummariesWithArchiveByUserId(userId));
+        summaries.sort(Comparator.comparing(LoanSummary::getId));
+        return requireUserIfEmpty(userId, summaries);
+    }
+
+    @Transactional(readOnly = true)
+    public List<LoanSummary> getCurrentLoanSummariesByUser(Long userId) {
+        log.debug("Fetching current loan summaries for user with ID: {}", userId);
+        return requireUserIfEmpty(userId, loanRepository.findCurrentSummariesByUserId(userId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<LoanSummary> getOverdueLoanSummaries() {
+        log.debug("Fetching all overdue loan summaries");
+        return loanRepository.findOverdueSummaries();
+    }
+
+    @Transactional(readOnly = true)
+    public List<LoanSummary> getLoanSummariesDueSoon(int days) {
+        log.debug("Fetching loan summaries due in the next {} days", days);
+        LocalDate startDate = LocalDate.now();
+        LocalDate endDate = LocalDate.now().plusDays(days);
+        return loanRepository.findSummariesDueBetween(startDate, endDate);
+    }
+
+    // Only an empty result needs the extra lookup to tell "no loans" from "no such user"
+    private List<LoanSummary> requireUserIfEmpty(Long userId, List<LoanSummary> summaries) {
+        if (summaries.isEmpty() && !userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with ID: " + userId);
+        }
+        return summaries;
+    }
+
+    @Transactional(readOnly = true)
     public Loan getLoanById(Long id) {
-        log.info("Fetching loan with ID: {}", id);
+        log.debug("Fetching loan with ID: {}", id);
         return loanRepository.findById(id)
                 .orElseThrow(() -> {
                     log.error("Loan not found with ID: {}", id);
@@ -45,32 +196,48 @@ public class LoanService {
                 });
     }
 
+    /**
+     * Full loan history of a user: the hot table and the archive, merged in loan ID order.
+     * Archived loans are rebuilt around the live book rows and are not managed.
+     */
+    @Transactional(readOnly = true)
     public List<Loan> getLoansByUser(Long userId) {
-        log.info("Fetching loans for user with ID: {}", userId);
+        log.debug("Fetching loans for user with ID: {}", userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
-        return loanRepository.findByUser(user);
+        List<Loan> loans = new ArrayList<>(loanRepository.findByUser(user));
+        List<ArchivedLoan> archived = archivedLoanRepository.findByUserIdOrderById(userId);
+        if (!archived.isEmpty()) {
+            Map<Long, Book> books = bookRepository.findAllById(archived.stream().map(ArchivedLoan::getBookId)
+                            .collect(Collectors.toSet())).stream()
+                    .collect(Collectors.toMap(Book::getId, Function.identity()));
+            archived.forEach(loan -> loans.add(loan.toLoan(user, books.get(loan.getBookId()))));
+            loans.sort(Comparator.comparing(Loan::getId));
+        }
+        return loans;
     }
 
+    @Transactional(readOnly = true)
     public List<Loan> getCurrentLoansByUser(Long userId) {
-        log.info("Fetching current loans for user with ID: {}", userId);
+        log.debug("Fetching current loans for user with ID: {}", userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
         return loanRepository.findCurrentLoansByUser(user);
     }
 
+    @Transactional(readOnly = true)
     public List<Loan> getOverdueLoans() {
-        log.info("Fetching all overdue loans");
+        log.debug("Fetching all overdue loans");
         return loanRepository.findAllOverdueLoans();
     }
 
     @Transactional
     public Loan borrowBook(Long userId, Long bookId, LocalDate dueDate) {
         log.info("Processing loan: User ID {} borrowing Book ID {}", userId, bookId);
+        checkDueDate(dueDate);
 
-        // Get user
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        // Get user (cached; updates to the account evict it)
+        User user = userService.getUserById(userId);
 
         // Check if user is active
         if (!user.isActive()) {
@@ -78,16 +245,20 @@ public class LoanService {
             throw new IllegalStateException("Cannot borrow books with an inactive account");
         }
 
-        // Get book
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + bookId));
-
-        // Check if book is available
-        if (book.getAvailableCopies() <= 0) {
+        // Claim a copy with a single guarded update; zero rows means the book is missing or out of copies,
+        // unless one was set aside for this user by a hold
+        boolean fromShelf = bookRepository.claimCopy(bookId) == 1;
+        if (!fromShelf && !holdService.pickUp(userId, bookId)) {
+            Book book = bookRepository.findById(bookId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + bookId));
             log.error("Book is not available for borrowing: {}", book.getTitle());
             throw new IllegalStateException("Book is not available for borrowing: " + book.getTitle());
         }
 
+        // Get book (already reflects the claim above)
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + bookId));
+
         // Set default due date if not provided
         if (dueDate == null) {
             dueDate = LocalDate.now().plusWeeks(2); // Default loan period of 2 weeks
@@ -102,11 +273,15 @@ public class LoanService {
                 .status(Loan.LoanStatus.BORROWED)
                 .build();
 
-        // Update book available copies
-        book.setAvailableCopies(book.getAvailableCopies() - 1);
-        bookRepository.save(book);
-
         Loan savedLoan = loanRepository.save(loan);
+        userRepository.recordBorrows(userId, 1);
+        cacheInvalidator.evictBook(bookId, book.getIsbn());
+        cacheInvalidator.evictUser(userId, user.getUsername());
+        circulationJournal.appendAfterCommit(CirculationEventType.BORROWED, savedLoan);
+        if (fromShelf) {
+            availabilityBroadcaster.bookChangedAfterCommit(bookId, -1);
+        }
+        availabilityBroadcaster.loanChangedAfterCommit(savedLoan);
         log.info("Book borrowed successfully: '{}' by user '{}'", book.getTitle(), user.getUsername());
         return savedLoan;
     }
@@ -115,108 +290,383 @@ public class LoanService {
     public Loan returnBook(Long loanId) {
         log.info("Processing book return for loan ID: {}", loanId);
 
-        Loan loan = getLoanById(loanId);
-
-        // Check if already returned
-        if (loan.getReturnDate() != null) {
-            log.error("Book already returned on: {}", loan.getReturnDate());
-            throw new IllegalStateException("Book already returned on: " + loan.getReturnDate());
+        Loan loan = findLoanForTransition(loanId);
+        Loan.LoanStatus observed;
+        for (int attempt = 1; ; attempt++) {
+            // Check if already returned
+            if (loan.getReturnDate() != null) {
+                log.error("Book already returned on: {}", loan.getReturnDate());
+                throw new IllegalStateException("Book already returned on: " + loan.getReturnDate());
+            }
+            // The copy was written off when the loss was reported
+            if (loan.getStatus() == Loan.LoanStatus.LOST) {
+                log.error("Loan {} was reported lost", loanId);
+                throw new IllegalStateException("Cannot return a book reported lost");
+            }
+
+            observed = loan.getStatus();
+            markReturned(loan);
+            // Guarded on the status read, so a concurrent return or loss report cannot count twice,
+            // and a loan the sweeper marked OVERDUE meanwhile is read again before its counters move
+            if (loanRepository.markReturned(loanId, observed, loan.getReturnDate(), loan.getNotes()) == 1) {
+                break;
+            }
+            loan = rereadChangedLoan(loanId, observed, attempt);
         }
+        long overdue = observed == Loan.LoanStatus.OVERDUE ? 1 : 0;
 
-        // Set return date
-        loan.setReturnDate(LocalDate.now());
-
-        // Force status to RETURNED - this is the critical fix
-        loan.setStatus(Loan.LoanStatus.RETURNED);
-
-        // Add note about late return if applicable
-        if (LocalDate.now().isAfter(loan.getDueDate())) {
-            long daysOverdue = ChronoUnit.DAYS.between(loan.getDueDate(), LocalDate.now());
-            loan.setNotes("Returned " + daysOverdue + " days late");
-        }
-
-        // Update book available copies
+        // Update book available copies and the circulation counters; with holds waiting the copy goes to the queue
         Book book = loan.getBook();
-        book.setAvailableCopies(book.getAvailableCopies() + 1);
-        bookRepository.save(book);
-
-        // Save the loan first
-        loanRepository.save(loan);
-
-        // Use the direct update method to ensure status is RETURNED
-        loanRepository.updateLoanStatus(loanId, Loan.LoanStatus.RETURNED);
+        boolean shelved = bookRepository.releaseCopy(book.getId(), overdue) == 1;
+        if (shelved) {
+            book.setAvailableCopies(book.getAvailableCopies() + 1);
+        } else {
+            shelved = holdService.releaseCopyToQueue(book, overdue) == null;
+        }
+        closeCounters(book, overdue);
+        User user = loan.getUser();
+        userRepository.recordClosedLoans(user.getId(), 1, overdue);
+        closeCounters(user, overdue);
+        cacheInvalidator.evictBook(book.getId(), book.getIsbn());
+        cacheInvalidator.evictUser(user.getId(), user.getUsername());
+        circulationJournal.appendAfterCommit(CirculationEventType.RETURNED, loan);
+        availabilityBroadcaster.bookChangedAfterCommit(book.getId(), shelved ? 1 : 0);
+        availabilityBroadcaster.loanChangedAfterCommit(loan);
 
         log.info("Book '{}' returned by user '{}'. Status set to RETURNED",
                 book.getTitle(), loan.getUser().getUsername());
 
-        // Return the updated loan
-        return getLoanById(loanId);
+        // The detached instance already carries every change that was written
+        return loan;
     }
 
+    /**
+     * Borrows several books in one transaction. Users and books are resolved with one
+     * IN query each (books row-locked), loans are inserted together and the book
+     * updates are flushed as one JDBC batch. Each entry succeeds or fails on its own.
+     */
     @Transactional
-    public Loan renewLoan(Long loanId, LocalDate newDueDate) {
-        log.info("Renewing loan with ID: {}", loanId);
-
-        Loan loan = getLoanById(loanId);
+    public List<BatchItemResult> borrowBooks(List<BorrowRequest> requests) {
+        log.info("Processing batch borrow of {} items", requests.size());
+        checkBatchSize(requests.size());
+
+        Set<Long> userIds = requests.stream().filter(Objects::nonNull).map(BorrowRequest::getUserId)
+                .filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<Long> bookIds = requests.stream().filter(Objects::nonNull).map(BorrowRequest::getBookId)
+                .filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Book> books = bookIds.isEmpty() ? Map.of() : bookRepository.findAllByIdForUpdate(bookIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        BatchItemResult[] results = new BatchItemResult[requests.size()];
+        List<Integer> positions = new ArrayList<>();
+        List<Loan> loans = new ArrayList<>();
+        List<Boolean> fromShelf = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < requests.size(); i++) {
+            BorrowRequest request = requests.get(i);
+            if (request == null || request.getUserId() == null || request.getBookId() == null) {
+                results[i] = BatchItemResult.failure(i, "userId and bookId are required");
+                continue;
+            }
+            if (request.getDueDate() != null && request.getDueDate().isBefore(LocalDate.now())) {
+                results[i] = BatchItemResult.failure(i, "Due date cannot be in the past: " + request.getDueDate());
+                continue;
+            }
+            User user = users.get(request.getUserId());
+            if (user == null) {
+                results[i] = BatchItemResult.failure(i, "User not found with ID: " + request.getUserId());
+                continue;
+            }
+            if (!user.isActive()) {
+                results[i] = BatchItemResult.failure(i, "Cannot borrow books with an inactive account");
+                continue;
+            }
+            Book book = books.get(request.getBookId());
+            if (book == null) {
+                results[i] = BatchItemResult.failure(i, "Book not found with ID: " + request.getBookId());
+                continue;
+            }
+
+            // Safe in memory: the row is locked until commit. As in borrowBook, a shelf copy
+            // belongs to the hold queue while one is waiting; otherwise a held copy may be picked up.
+            boolean shelf = book.getAvailableCopies() > 0 && book.getWaitingHolds() == 0;
+            if (shelf) {
+                book.setAvailableCopies(book.getAvailableCopies() - 1);
+                book.setActiveLoans(book.getActiveLoans() + 1);
+                book.setLifetimeBorrows(book.getLifetimeBorrows() + 1);
+            } else if (!holdService.pickUp(book, user.getId(), now)) {
+                results[i] = BatchItemResult.failure(i, "Book is not available for borrowing: " + book.getTitle());
+                continue;
+            }
+            LocalDate dueDate = request.getDueDate() != null ? request.getDueDate() : LocalDate.now().plusWeeks(2);
+            loans.add(Loan.builder()
+                    .user(user)
+                    .book(book)
+                    .loanDate(LocalDate.now())
+                    .dueDate(dueDate)
+                    .status(Loan.LoanStatus.BORROWED)
+                    .build());
+            positions.add(i);
+            fromShelf.add(shelf);
+        }
 
-        // Check if already returned
-        if (loan.getReturnDate() != null) {
-            log.error("Cannot renew a returned loan");
-            throw new IllegalStateException("Cannot renew a returned loan");
+        List<Loan> savedLoans = loanRepository.saveAll(loans);
+        for (int j = 0; j < savedLoans.size(); j++) {
+            Loan loan = savedLoans.get(j);
+            results[positions.get(j)] = BatchItemResult.success(positions.get(j), LoanSummary.from(loan));
+            cacheInvalidator.evictBook(loan.getBook().getId(), loan.getBook().getIsbn());
+            circulationJournal.appendAfterCommit(CirculationEventType.BORROWED, loan);
+            if (fromShelf.get(j)) {
+                availabilityBroadcaster.bookChangedAfterCommit(loan.getBook().getId(), -1);
+            }
+            availabilityBroadcaster.loanChangedAfterCommit(loan);
         }
+        // Users are not locked, so their counters move with one relative update each
+        savedLoans.stream()
+                .collect(Collectors.groupingBy(loan -> loan.getUser().getId(), Collectors.counting()))
+                .forEach((userId, count) -> {
+                    userRepository.recordBorrows(userId, count);
+                    cacheInvalidator.evictUser(userId, users.get(userId).getUsername());
+                });
+        log.info("Batch borrow completed: {} of {} items succeeded", savedLoans.size(), requests.size());
+        return List.of(results);
+    }
 
-        // Check if overdue
-        if (LocalDate.now().isAfter(loan.getDueDate())) {
-            log.error("Cannot renew an overdue loan");
-            throw new IllegalStateException("Cannot renew an overdue loan. Please return the book first");
+    /**
+     * Returns several loans in one transaction. The affected books are row-locked with
+     * one IN query, the loans are loaded with one join query, and all loan and book
+     * updates are flushed as JDBC batches. Each entry succeeds or fails on its own.
+     */
+    @Transactional
+    public List<BatchItemResult> returnBooks(List<Long> loanIds) {
+        log.info("Processing batch return of {} items", loanIds.size());
+        checkBatchSize(loanIds.size());
+
+        Set<Long> ids = loanIds.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, Loan> loans = Map.of();
+        if (!ids.isEmpty()) {
+            // Lock the books first so the copies and hold queues we update are current
+            List<Long> bookIds = loanRepository.findBookIdsByLoanIds(ids);
+            if (!bookIds.isEmpty()) {
+                bookRepository.findAllByIdForUpdate(bookIds);
+            }
+            loans = loanRepository.findAllWithBookAndUserByIdIn(ids).stream()
+                    .collect(Collectors.toMap(Loan::getId, Function.identity()));
         }
 
-        // Set new due date
-        if (newDueDate == null) {
-            newDueDate = loan.getDueDate().plusWeeks(2); // Extend by 2 more weeks
+        List<BatchItemResult> results = new ArrayList<>(loanIds.size());
+        // User ID -> {closed loans, of which overdue}
+        Map<Long, long[]> closedByUser = new LinkedHashMap<>();
+        int succeeded = 0;
+        for (int i = 0; i < loanIds.size(); i++) {
+            Loan loan = loans.get(loanIds.get(i));
+            if (loan == null) {
+                results.add(BatchItemResult.failure(i, "Loan not found with ID: " + loanIds.get(i)));
+                continue;
+            }
+            if (loan.getReturnDate() != null) {
+                results.add(BatchItemResult.failure(i, "Book already returned on: " + loan.getReturnDate()));
+                continue;
+            }
+            if (loan.getStatus() == Loan.LoanStatus.LOST) {
+                results.add(BatchItemResult.failure(i, "Cannot return a book reported lost"));
+                continue;
+            }
+
+            long overdue = loan.getStatus() == Loan.LoanStatus.OVERDUE ? 1 : 0;
+            markReturned(loan);
+            Book book = loan.getBook();
+            boolean shelved = holdService.offerCopy(book, LocalDateTime.now()) == null;
+            closeCounters(book, overdue);
+            long[] closed = closedByUser.computeIfAbsent(loan.getUser().getId(), userId -> new long[2]);
+            closed[0]++;
+            closed[1] += overdue;
+            cacheInvalidator.evictBook(book.getId(), book.getIsbn());
+            cacheInvalidator.evictUser(loan.getUser().getId(), loan.getUser().getUsername());
+            circulationJournal.appendAfterCommit(CirculationEventType.RETURNED, loan);
+            availabilityBroadcaster.bookChangedAfterCommit(book.getId(), shelved ? 1 : 0);
+            availabilityBroadcaster.loanChangedAfterCommit(loan);
+            results.add(BatchItemResult.success(i, LoanSummary.from(loan)));
+            succeeded++;
         }
+        // Users are not locked, so their counters move with one relative update each
+        closedByUser.forEach((userId, closed) -> userRepository.recordClosedLoans(userId, closed[0], closed[1]));
+        log.info("Batch return completed: {} of {} items succeeded", succeeded, loanIds.size());
+        return results;
+    }
+
+    @Transactional
+    public Loan renewLoan(Long loanId, LocalDate newDueDate) {
+        log.info("Renewing loan with ID: {}", loanId);
 
-        loan.setDueDate(newDueDate);
-        String notes = loan.getNotes();
-        loan.setNotes((notes != null ? notes + "\n" : "") + "Loan renewed until: " + newDueDate);
+        checkDueDate(newDueDate);
+
+        Loan loan = findLoanForTransition(loanId);
+        LocalDate dueDate;
+        for (int attempt = 1; ; attempt++) {
+            // Check if already returned
+            if (loan.getReturnDate() != null) {
+                log.error("Cannot renew a returned loan");
+                throw new IllegalStateException("Cannot renew a returned loan");
+            }
+            // A lost copy is written off, there is nothing left to renew
+            if (loan.getStatus() == Loan.LoanStatus.LOST) {
+                log.error("Cannot renew loan {}: reported lost", loanId);
+                throw new IllegalStateException("Cannot renew a loan reported lost");
+            }
+
+            // Check if overdue
+            if (loan.getStatus() == Loan.LoanStatus.OVERDUE || LocalDate.now().isAfter(loan.getDueDate())) {
+                log.error("Cannot renew an overdue loan");
+                throw new IllegalStateException("Cannot renew an overdue loan. Please return the book first");
+            }
+
+            // Set new due date
+            dueDate = newDueDate != null ? newDueDate : loan.getDueDate().plusWeeks(2); // Extend by 2 more weeks
+            Loan.LoanStatus observed = loan.getStatus();
+            loan.setDueDate(dueDate);
+            String notes = loan.getNotes();
+            loan.setNotes((notes != null ? notes + "\n" : "") + "Loan renewed until: " + dueDate);
+
+            // Guarded on the status read, so a loan closed meanwhile is not renewed behind its back
+            if (loanRepository.renew(loanId, observed, dueDate, loan.getNotes()) == 1) {
+                break;
+            }
+            loan = rereadChangedLoan(loanId, observed, attempt);
+        }
 
-        Loan updatedLoan = loanRepository.save(loan);
-        log.info("Loan renewed successfully for book '{}' until {}", loan.getBook().getTitle(), newDueDate);
-        return updatedLoan;
+        circulationJournal.appendAfterCommit(CirculationEventType.RENEWED, loan);
+        availabilityBroadcaster.loanChangedAfterCommit(loan);
+        log.info("Loan renewed successfully for book '{}' until {}", loan.getBook().getTitle(), dueDate);
+        return loan;
     }
 
     @Transactional
     public void reportLost(Long loanId) {
         log.info("Reporting book as lost for loan ID: {}", loanId);
 
-        Loan loan = getLoanById(loanId);
-
-        // Check if already returned
-        if (loan.getReturnDate() != null) {
-            log.error("Cannot report a returned book as lost");
-            throw new IllegalStateException("Cannot report a returned book as lost");
+        Loan loan = findLoanForTransition(loanId);
+        Loan.LoanStatus observed;
+        for (int attempt = 1; ; attempt++) {
+            // Check if already returned
+            if (loan.getReturnDate() != null) {
+                log.error("Cannot report a returned book as lost");
+                throw new IllegalStateException("Cannot report a returned book as lost");
+            }
+            if (loan.getStatus() == Loan.LoanStatus.LOST) {
+                log.error("Loan {} was already reported lost", loanId);
+                throw new IllegalStateException("Book already reported lost");
+            }
+
+            // Update loan status
+            observed = loan.getStatus();
+            loan.setStatus(Loan.LoanStatus.LOST);
+            String notes = loan.getNotes();
+            loan.setNotes((notes != null ? notes + "\n" : "") + "Book reported lost on: " + LocalDate.now());
+
+            // Guarded on the status read, so the copy is written off only once and with the right counters
+            if (loanRepository.markLost(loanId, observed, loan.getNotes()) == 1) {
+                break;
+            }
+            loan = rereadChangedLoan(loanId, observed, attempt);
         }
+        long overdue = observed == Loan.LoanStatus.OVERDUE ? 1 : 0;
 
-        // Update loan status
-        loan.setStatus(Loan.LoanStatus.LOST);
-        String notes = loan.getNotes();
-        loan.setNotes((notes != null ? notes + "\n" : "") + "Book reported lost on: " + LocalDate.now());
-
-        // Update book total copies
+        // Update book total copies and the circulation counters
         Book book = loan.getBook();
+        bookRepository.writeOffCopy(book.getId(), overdue);
         book.setTotalCopies(book.getTotalCopies() - 1);
-        bookRepository.save(book);
-
-        loanRepository.save(loan);
-        loanRepository.updateLoanStatus(loanId, Loan.LoanStatus.LOST);
+        closeCounters(book, overdue);
+        User user = loan.getUser();
+        userRepository.recordClosedLoans(user.getId(), 1, overdue);
+        closeCounters(user, overdue);
+        cacheInvalidator.evictBook(book.getId(), book.getIsbn());
+        cacheInvalidator.evictUser(user.getId(), user.getUsername());
+        circulationJournal.appendAfterCommit(CirculationEventType.LOST, loan);
+        availabilityBroadcaster.loanChangedAfterCommit(loan);
 
         log.warn("Book '{}' reported lost by user '{}'", book.getTitle(), loan.getUser().getUsername());
     }
 
+    @Transactional(readOnly = true)
     public List<Loan> getLoansDueSoon(int days) {
-        log.info("Fetching loans due in the next {} days", days);
+        log.debug("Fetching loans due in the next {} days", days);
         LocalDate startDate = LocalDate.now();
         LocalDate endDate = LocalDate.now().plusDays(days);
         return loanRepository.findLoansDueBetween(startDate, endDate);
     }
-}
\ No newline at end of file
+
+    // Sets return date and RETURNED status, noting a late return if applicable
+    private void markReturned(Loan loan) {
+        loan.setReturnDate(LocalDate.now());
+        loan.setStatus(Loan.LoanStatus.RETURNED);
+        if (LocalDate.now().isAfter(loan.getDueDate())) {
+            long daysOverdue = ChronoUnit.DAYS.between(loan.getDueDate(), LocalDate.now());
+            loan.setNotes("Returned " + daysOverdue + " days late");
+        }
+    }
+
+    // Mirrors a closed loan in the counters of an in-memory book; overdue is 1 if it was OVERDUE
+    private static void closeCounters(Book book, long overdue) {
+        book.setActiveLoans(book.getActiveLoans() - 1);
+        book.setOverdueLoans(book.getOverdueLoans() - overdue);
+    }
+
+    private static void closeCounters(User user, long overdue) {
+        user.setActiveLoans(user.getActiveLoans() - 1);
+        user.setOverdueLoans(user.getOverdueLoans() - overdue);
+    }
+
+    // Keyed by ID (entity hashCodes cover their lazy loan sets), in the order the page references them
+    private static <T> Map<Long, T> byId(Set<Long> ids, List<T> entities, Function<T, Long> idOf) {
+        Map<Long, T> found = entities.stream().collect(Collectors.toMap(idOf, Function.identity()));
+        Map<Long, T> ordered = new LinkedHashMap<>();
+        ids.forEach(id -> ordered.put(id, found.get(id)));
+        return ordered;
+    }
+
+    // A past due date would slip behind the overdue sweeper's watermark
+    private void checkDueDate(LocalDate dueDate) {
+        if (dueDate != null && dueDate.isBefore(LocalDate.now())) {
+            log.error("Due date cannot be in the past: {}", dueDate);
+            throw new IllegalArgumentException("Due date cannot be in the past: " + dueDate);
+        }
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size " + size + " exceeds the maximum of " + maxBatchSize);
+        }
+    }
+
+    /**
+     * Reads a loan again after a transition guarded on its status updated nothing: it was
+     * closed, or marked OVERDUE by the sweeper, since it was read. Gives up after a few rounds.
+     */
+    private Loan rereadChangedLoan(Long loanId, Loan.LoanStatus observed, int attempt) {
+        if (attempt >= TRANSITION_ATTEMPTS) {
+            log.error("Loan {} kept changing concurrently", loanId);
+            throw new IllegalStateException("Loan changed concurrently, try again: " + loanId);
+        }
+        log.warn("Loan {} is no longer {}; reading it again", loanId, observed);
+        return findLoanForTransition(loanId);
+    }
+
+    /**
+     * Loads a loan with its book and user in one query and detaches them, so the
+     * guarded update statements of a transition are its only writes.
+     */
+    private Loan findLoanForTransition(Long loanId) {
+        Loan loan = loanRepository.findWithBookAndUserById(loanId)
+                .orElseThrow(() -> {
+                    log.error("Loan not found with ID: {}", loanId);
+                    return new ResourceNotFoundException("Loan not found with ID: " + loanId);
+                });
+        entityManager.detach(loan);
+        entityManager.detach(loan.getBook());
+        entityManager.detach(loan.getUser());
+        return loan;
+    }
+}
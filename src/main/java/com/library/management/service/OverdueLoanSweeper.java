@@ -0,0 +1,108 @@
+package com.library.management.service;
+
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.LoanRepository;
+import com.library.management.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves BORROWED loans whose due date has passed to OVERDUE, in bounded batches.
+ * <p>
+ * Due dates are whole days, so loans only become overdue when the date changes.
+ * The sweeper runs once on startup (a full sweep) and then shortly after midnight.
+ * After each run the watermark is set to that day: the next run only looks at due
+ * dates from the watermark on. Borrowing and renewing reject due dates in the past,
+ * so no loan can appear behind the watermark.
+ * <p>
+ * Each batch also raises the overdue counters of the affected books and users in the
+ * same transaction, counting only the loans its guarded update is about to move.
+ */
+@Component
+@Lazy(false) // @Scheduled methods are only registered once the bean exists
+@Slf4j
+public class OverdueLoanSweeper {
+
+    private final LoanRepository loanRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final ReentrantLock sweepLock = new ReentrantLock();
+
+    // Every loan due before this date has already been swept
+    private volatile LocalDate watermark;
+
+    public OverdueLoanSweeper(LoanRepository loanRepository, BookRepository bookRepository,
+                              UserRepository userRepository, CacheInvalidator cacheInvalidator,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${library.overdue-sweep.batch-size:500}") int batchSize) {
+        this.loanRepository = loanRepository;
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void sweepOnStartup() {
+        sweep();
+    }
+
+    @Scheduled(cron = "${library.overdue-sweep.cron:0 1 0 * * *}")
+    public int sweep() {
+        sweepLock.lock();
+        try {
+            return sweepFrom(watermark);
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    private int sweepFrom(LocalDate since) {
+        LocalDate today = LocalDate.now();
+        int total = 0;
+
+        while (true) {
+            PageRequest page = PageRequest.ofSize(batchSize);
+            List<Long> ids = since == null
+                    ? loanRepository.findOverdueCandidateIds(today, page)
+                    : loanRepository.findOverdueCandidateIdsSince(since, today, page);
+            if (ids.isEmpty()) {
+                break;
+            }
+            // One short transaction per batch keeps lock time and undo log bounded
+            Integer updated = transactionTemplate.execute(status -> {
+                bookRepository.addOverdueLoans(ids);
+                userRepository.addOverdueLoans(ids);
+                return loanRepository.markOverdue(ids);
+            });
+            total += updated != null ? updated : 0;
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+
+        watermark = today;
+        if (total > 0) {
+            // Cached books and users now carry stale overdue counters
+            cacheInvalidator.evictAllCirculating();
+        }
+        log.info("Overdue sweep marked {} loans as OVERDUE (due dates from {} to before {})",
+                total, since != null ? since : "the beginning", today);
+        return total;
+    }
+}
@@ -0,0 +1,35 @@
+package com.library.management.service;
+
+import jakarta.persistence.EntityManager;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Helpers for walking large result streams in constant memory.
+ */
+final class StreamingSupport {
+
+    // Entities are evicted from the persistence context every CLEAR_INTERVAL rows
+    static final int CLEAR_INTERVAL = 500;
+
+    private StreamingSupport() {
+    }
+
+    /**
+     * Hands each entity to the consumer and periodically clears the persistence
+     * context so streamed rows do not accumulate in the first-level cache.
+     * The stream is always closed.
+     */
+    static <T> void forEachDetached(Stream<T> stream, EntityManager entityManager, Consumer<? super T> consumer) {
+        try (stream) {
+            int[] count = {0};
+            stream.forEach(entity -> {
+                consumer.accept(entity);
+                if (++count[0] % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            });
+        }
+    }
+}
@@ -1,34 +1,73 @@
 package com.library.management.service;
 
+import com.library.management.config.CacheConfig;
+import com.library.management.dto.ResourceVersion;
 import com.library.management.exception.ResourceNotFoundException;
 import com.library.management.model.User;
+import com.library.management.repository.ArchivedLoanRepository;
 import com.library.management.repository.UserRepository;
+import com.library.management.search.UserSearchIndex;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class UserService {
 
     private final UserRepository userRepository;
+    private final ArchivedLoanRepository archivedLoanRepository;
+    private final HoldService holdService;
+    private final EntityManager entityManager;
+    private final UserSearchIndex userSearchIndex;
+    private final CacheInvalidator cacheInvalidator;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, ArchivedLoanRepository archivedLoanRepository,
+                       HoldService holdService, EntityManager entityManager, UserSearchIndex userSearchIndex,
+                       CacheInvalidator cacheInvalidator) {
         this.userRepository = userRepository;
+        this.archivedLoanRepository = archivedLoanRepository;
+        this.holdService = holdService;
+        this.entityManager = entityManager;
+        this.userSearchIndex = userSearchIndex;
+        this.cacheInvalidator = cacheInvalidator;
     }
 
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
-        log.info("Fetching all users");
+        log.debug("Fetching all users");
         return userRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public List<User> getUsersPage(Long after, int limit) {
+        log.debug("Fetching up to {} users after ID: {}", limit, after);
+        return userRepository.findByIdGreaterThanOrderByIdAsc(after != null ? after : 0L, PageRequest.ofSize(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<User> consumer) {
+        log.debug("Streaming all users");
+        StreamingSupport.forEachDetached(userRepository.streamAll(), entityManager, consumer);
+    }
+
+    // Deliberately not @Transactional: a cache hit must not open a transaction, and the
+    // repository lookup on a miss already runs read-only
+    @Cacheable(CacheConfig.USERS)
     public User getUserById(Long id) {
-        log.info("Fetching user with ID: {}", id);
+        log.debug("Fetching user with ID: {}", id);
         return userRepository.findById(id)
                 .orElseThrow(() -> {
                     log.error("User not found with ID: {}", id);
@@ -36,9 +75,55 @@ public class UserService {
                 });
     }
 
-    public List<User> searchUsers(String keyword) {
-        log.info("Searching users with keyword: {}", keyword);
-        return userRepository.searchUsers(keyword);
+    /**
+     * The validators of a user for conditional GETs, read without loading the user.
+     */
+    @Transactional(readOnly = true)
+    public ResourceVersion getUserVersion(Long id) {
+        return userRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + id));
+    }
+
+    @Transactional(readOnly = true)
+    public ResourceVersion getUserVersionByUsername(String username) {
+        return userRepository.findVersionByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
+    }
+
+    /**
+     * Version of the user collection as a whole; changes whenever any user does.
+     */
+    public ResourceVersion getUserCollectionVersion() {
+        return cacheInvalidator.getUserCollectionVersion();
+    }
+
+    @Cacheable(CacheConfig.USERS_BY_USERNAME)
+    public User getUserByUsername(String username) {
+        log.debug("Fetching user with username: {}", username);
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> {
+                    log.error("User not found with username: {}", username);
+                    return new ResourceNotFoundException("User not found with username: " + username);
+                });
+    }
+
+    @Transactional(readOnly = true)
+    public List<User> searchUsers(String keyword, int limit) {
+        log.debug("Searching users with keyword: {}", keyword);
+
+        // Until the startup rebuild finishes, fall back to the database scan
+        if (!userSearchIndex.isReady()) {
+            return userRepository.searchUsers(keyword).stream().limit(limit).toList();
+        }
+
+        List<Long> ids = userSearchIndex.search(keyword, limit);
+        Map<Long, User> usersById = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        // Keep the index's relevance order
+        return ids.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     @Transactional
@@ -58,6 +143,9 @@ public class UserService {
         }
 
         User savedUser = userRepository.save(user);
+        userSearchIndex.indexAfterCommit(savedUser);
+        // Nothing is cached for a new user, but this advances the user collection version of list ETags
+        cacheInvalidator.evictUser(savedUser.getId(), savedUser.getUsername());
         log.info("User created successfully with ID: {}", savedUser.getId());
         return savedUser;
     }
@@ -67,6 +155,7 @@ public class UserService {
         log.info("Updating user with ID: {}", id);
 
         User user = getUserById(id);
+        String oldUsername = user.getUsername();
 
         // Check if username is being changed and already exists
         if (!user.getUsername().equals(userDetails.getUsername()) &&
@@ -97,6 +186,8 @@ public class UserService {
         user.setActive(userDetails.isActive());
 
         User updatedUser = userRepository.save(user);
+        userSearchIndex.indexAfterCommit(updatedUser);
+        cacheInvalidator.evictUser(id, oldUsername, updatedUser.getUsername());
         log.info("User updated successfully: {}", updatedUser.getUsername());
         return updatedUser;
     }
@@ -106,7 +197,13 @@ public class UserService {
         log.info("Deleting user with ID: {}", id);
 
         User user = getUserById(id);
+        // Recent loans cascade with the user; archived history has no foreign key to do so
+        archivedLoanRepository.deleteByUserId(id);
+        // Copies set aside for the user's holds move on to the next patron in each queue
+        holdService.deleteHoldsOfUser(id);
         userRepository.delete(user);
+        userSearchIndex.removeAfterCommit(id);
+        cacheInvalidator.evictUser(id, user.getUsername());
         log.info("User deleted successfully: {}", user.getUsername());
     }
 }
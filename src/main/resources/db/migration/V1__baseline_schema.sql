@@ -0,0 +1,41 @@
+-- Baseline: the schema as previously generated by Hibernate (ddl-auto=update).
+-- Existing databases are baselined at this version and skip it.
+
+CREATE TABLE IF NOT EXISTS books (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    author VARCHAR(255) NOT NULL,
+    available_copies INTEGER NOT NULL,
+    description VARCHAR(1000),
+    genre VARCHAR(255) NOT NULL,
+    isbn VARCHAR(255) NOT NULL,
+    publication_date DATE NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    total_copies INTEGER NOT NULL,
+    CONSTRAINT uk_books_isbn UNIQUE (isbn)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    phone VARCHAR(255),
+    active BOOLEAN NOT NULL,
+    membership_type VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE IF NOT EXISTS loans (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    due_date DATE NOT NULL,
+    loan_date DATE NOT NULL,
+    notes VARCHAR(255),
+    return_date DATE,
+    status VARCHAR(255) NOT NULL CHECK (status IN ('BORROWED', 'RETURNED', 'OVERDUE', 'LOST')),
+    book_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    CONSTRAINT fk_loans_book FOREIGN KEY (book_id) REFERENCES books (id),
+    CONSTRAINT fk_loans_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
@@ -0,0 +1,18 @@
+-- One index per repository predicate; keep in sync with the @Index declarations on the entities.
+
+-- BookRepository.findByAuthor / findByGenre / findAllAvailableBooks
+CREATE INDEX IF NOT EXISTS idx_books_author ON books (author);
+CREATE INDEX IF NOT EXISTS idx_books_genre ON books (genre);
+CREATE INDEX IF NOT EXISTS idx_books_available_copies ON books (available_copies);
+
+-- UserRepository.findAllActiveUsers
+CREATE INDEX IF NOT EXISTS idx_users_active ON users (active);
+
+-- LoanRepository.findByUser / findCurrentLoansByUser and the user-scoped summaries
+CREATE INDEX IF NOT EXISTS idx_loans_user_status ON loans (user_id, status);
+-- LoanRepository.findByBook
+CREATE INDEX IF NOT EXISTS idx_loans_book ON loans (book_id);
+-- LoanRepository.findByStatus, the overdue sweep and overdue summaries
+CREATE INDEX IF NOT EXISTS idx_loans_status_due_date ON loans (status, due_date);
+-- LoanRepository.findLoansDueBetween / findSummariesDueBetween
+CREATE INDEX IF NOT EXISTS idx_loans_due_date ON loans (due_date);
@@ -0,0 +1,20 @@
+-- Denormalized circulation counters on books and users (see Book / User); active = BORROWED or OVERDUE.
+
+ALTER TABLE books ADD COLUMN active_loans BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE books ADD COLUMN lifetime_borrows BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE books ADD COLUMN overdue_loans BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE users ADD COLUMN active_loans BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE users ADD COLUMN lifetime_borrows BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE users ADD COLUMN overdue_loans BIGINT DEFAULT 0 NOT NULL;
+
+-- Backfill from the existing loan history
+UPDATE books b SET
+    active_loans = (SELECT COUNT(*) FROM loans l WHERE l.book_id = b.id AND l.status IN ('BORROWED', 'OVERDUE')),
+    lifetime_borrows = (SELECT COUNT(*) FROM loans l WHERE l.book_id = b.id),
+    overdue_loans = (SELECT COUNT(*) FROM loans l WHERE l.book_id = b.id AND l.status = 'OVERDUE');
+
+UPDATE users u SET
+    active_loans = (SELECT COUNT(*) FROM loans l WHERE l.user_id = u.id AND l.status IN ('BORROWED', 'OVERDUE')),
+    lifetime_borrows = (SELECT COUNT(*) FROM loans l WHERE l.user_id = u.id),
+    overdue_loans = (SELECT COUNT(*) FROM loans l WHERE l.user_id = u.id AND l.status = 'OVERDUE');
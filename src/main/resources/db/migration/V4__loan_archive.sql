@@ -0,0 +1,22 @@
+-- Cold storage for closed loans (see ArchivedLoan / LoanArchiver); keep in sync with the entity.
+-- No foreign keys: archived history outlives the books and users it names.
+
+CREATE TABLE IF NOT EXISTS loan_archive (
+    id BIGINT NOT NULL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    book_id BIGINT NOT NULL,
+    book_title VARCHAR(255) NOT NULL,
+    book_isbn VARCHAR(255) NOT NULL,
+    loan_date DATE NOT NULL,
+    due_date DATE NOT NULL,
+    return_date DATE,
+    status VARCHAR(255) NOT NULL CHECK (status IN ('RETURNED', 'LOST')),
+    notes VARCHAR(255),
+    archived_on DATE NOT NULL
+);
+
+-- ArchivedLoanRepository.findByUserIdOrderById / deleteByUserId and the reconciler's per-user counts
+CREATE INDEX IF NOT EXISTS idx_loan_archive_user ON loan_archive (user_id);
+-- ArchivedLoanRepository.deleteByBookId and the reconciler's per-book counts
+CREATE INDEX IF NOT EXISTS idx_loan_archive_book ON loan_archive (book_id);
@@ -0,0 +1,23 @@
+-- Per-book hold queues (see Hold / HoldService); keep in sync with the entities.
+
+-- WAITING holds per book, maintained under the book's row lock
+ALTER TABLE books ADD COLUMN waiting_holds BIGINT DEFAULT 0 NOT NULL;
+
+CREATE TABLE IF NOT EXISTS holds (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    status VARCHAR(255) NOT NULL CHECK (status IN ('WAITING', 'READY', 'FULFILLED', 'EXPIRED', 'CANCELLED')),
+    placed_at TIMESTAMP NOT NULL,
+    ready_at TIMESTAMP,
+    expires_at TIMESTAMP,
+    CONSTRAINT fk_holds_book FOREIGN KEY (book_id) REFERENCES books (id),
+    CONSTRAINT fk_holds_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+-- Head of a book's queue (first WAITING hold by ID) and the pickup lookup when borrowing
+CREATE INDEX IF NOT EXISTS idx_holds_book_status ON holds (book_id, status, id);
+-- HoldRepository.findByUserIdOrderById and the duplicate-hold check
+CREATE INDEX IF NOT EXISTS idx_holds_user_status ON holds (user_id, status);
+-- HoldExpirySweeper: READY holds past their pickup deadline
+CREATE INDEX IF NOT EXISTS idx_holds_status_expires_at ON holds (status, expires_at);
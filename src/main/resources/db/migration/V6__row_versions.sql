@@ -0,0 +1,9 @@
+-- Row versions and modification times for books and users (see Book / User): optimistic locking
+-- and the ETag / Last-Modified validators of conditional GETs. Every write bumps both, including
+-- the bulk updates in BookRepository / UserRepository and the catalog import's MERGE.
+
+ALTER TABLE books ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE books ADD COLUMN last_modified_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
+
+ALTER TABLE users ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE users ADD COLUMN last_modified_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
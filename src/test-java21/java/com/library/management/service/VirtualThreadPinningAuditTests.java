@@ -0,0 +1,144 @@
+package com.library.management.service;
+
+import com.library.management.dto.BorrowRequest;
+import com.library.management.model.Book;
+import com.library.management.model.Loan;
+import com.library.management.model.User;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.UserRepository;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pinning audit for the virtual-thread mode: drives every {@code @Transactional} circulation
+ * path on virtual threads while JFR records {@code jdk.VirtualThreadPinned} with no threshold,
+ * and fails on any pinning event whose stack runs through this code base, wherever the
+ * monitor was taken: a lock held by the driver is still held on our call path. Only pinning
+ * with no application frame at all, such as on a driver-internal thread, is reported and
+ * let through.
+ */
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+@Slf4j
+class VirtualThreadPinningAuditTests {
+
+    private static final int WORKERS = 64;
+    private static final String APPLICATION_PACKAGE = "com.library.management.";
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private OverdueLoanSweeper overdueLoanSweeper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void transactionalServicePathsDoNotPinCarrierThreads() throws Exception {
+        List<Long> userIds = new ArrayList<>();
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < WORKERS; i++) {
+            userIds.add(userRepository.save(User.builder()
+                    .name("Pinning Audit " + i)
+                    .email("pinning-" + i + "-" + System.nanoTime() + "@example.com")
+                    .username("pinning-" + i + "-" + System.nanoTime())
+                    .password("secret")
+                    .membershipType("BASIC")
+                    .active(true)
+                    .build()).getId());
+            bookIds.add(bookRepository.save(Book.builder()
+                    .title("Pinning Audit " + i)
+                    .author("Auditor")
+                    .isbn("PIN-" + i + "-" + System.nanoTime())
+                    .publicationDate(LocalDate.of(2020, 1, 1))
+                    .genre("Technology")
+                    .totalCopies(10)
+                    .availableCopies(10)
+                    .build()).getId());
+        }
+
+        List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", pinned::add);
+            recording.startAsync();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> work = new ArrayList<>();
+                for (int i = 0; i < WORKERS; i++) {
+                    Long userId = userIds.get(i);
+                    Long bookId = bookIds.get(i);
+                    work.add(executor.submit(() -> {
+                        Loan loan = loanService.borrowBook(userId, bookId, null);
+                        loanService.renewLoan(loan.getId(), null);
+                        loanService.returnBook(loan.getId());
+
+                        List<Long> loanIds = loanService.borrowBooks(List.of(
+                                        new BorrowRequest(userId, bookId, null),
+                                        new BorrowRequest(userId, bookId, null))).stream()
+                                .map(result -> result.getLoan().getId())
+                                .toList();
+                        loanService.returnBooks(List.of(loanIds.get(0)));
+                        loanService.reportLost(loanIds.get(1));
+                        return null;
+                    }));
+                }
+                work.add(executor.submit(overdueLoanSweeper::sweep));
+                for (Future<?> future : work) {
+                    future.get();
+                }
+            }
+            recording.stop();
+        }
+
+        List<String> ownPinning = pinned.stream()
+                .filter(VirtualThreadPinningAuditTests::onApplicationPath)
+                .map(VirtualThreadPinningAuditTests::describe)
+                .collect(Collectors.toList());
+        pinned.stream().filter(event -> !onApplicationPath(event))
+                .forEach(event -> log.info("Carrier pinned outside application code:\n{}", describe(event)));
+
+        assertThat(ownPinning).as("carrier threads pinned on transactional service paths").isEmpty();
+    }
+
+    // An event without a stack trace cannot be cleared, so it counts against us
+    private static boolean onApplicationPath(RecordedEvent event) {
+        return event.getStackTrace() == null || event.getStackTrace().getFrames().stream()
+                .anyMatch(frame -> frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE));
+    }
+
+    private static String describe(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "(no stack trace)";
+        }
+        return event.getStackTrace().getFrames().stream()
+                .limit(64)
+                .map(VirtualThreadPinningAuditTests::frame)
+                .collect(Collectors.joining("\n    at ", "    at ", ""));
+    }
+
+    private static String frame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+}
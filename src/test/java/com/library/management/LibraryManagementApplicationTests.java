@@ -1,13 +1,26 @@
 package com.library.management;
 
+import com.zaxxer.hikari.HikariDataSource;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
 class LibraryManagementApplicationTests {
 
+	@Autowired
+	private ApplicationContext context;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void readOnlyPoolIsOnlyCreatedWhenEnabled() {
+		assertThat(context.getBeansOfType(HikariDataSource.class)).containsOnlyKeys("readWriteDataSource");
+	}
+
 }
@@ -0,0 +1,43 @@
+package com.library.management;
+
+import com.library.management.model.Book;
+import com.library.management.model.User;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unsaved entities for tests that share one application context and database, so every ISBN,
+ * username and email is unique across the whole test run.
+ */
+public final class TestFixtures {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong(System.nanoTime());
+
+    private TestFixtures() {
+    }
+
+    public static Book book(int copies) {
+        return Book.builder()
+                .title("Fixture Title")
+                .author("Some Author")
+                .isbn("F" + SEQUENCE.incrementAndGet())
+                .publicationDate(LocalDate.of(2000, 1, 1))
+                .genre("Testing")
+                .totalCopies(copies)
+                .availableCopies(copies)
+                .build();
+    }
+
+    public static User user() {
+        String name = "fixture-" + SEQUENCE.incrementAndGet();
+        return User.builder()
+                .name("Fixture Patron")
+                .email(name + "@example.com")
+                .username(name)
+                .password("secret")
+                .membershipType("BASIC")
+                .active(true)
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.library.management.config;
+
+import com.library.management.repository.BookRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"library.datasource.read-only.enabled=true",
+        "library.datasource.read-only.hikari.maximum-pool-size=3"})
+class ReadOnlyDataSourceConfigTests {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private HikariDataSource readWriteDataSource;
+
+    @Autowired
+    private HikariDataSource readOnlyDataSource;
+
+    @Test
+    void readOnlyTransactionsUseTheReadOnlyPool() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        readOnly.executeWithoutResult(status -> {
+            bookRepository.count();
+            assertThat(readOnlyDataSource.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+            assertThat(readWriteDataSource.getHikariPoolMXBean().getActiveConnections()).isZero();
+        });
+    }
+
+    @Test
+    void readOnlyPoolIsBoundToItsOwnProperties() {
+        assertThat(readOnlyDataSource.getMaximumPoolSize()).isEqualTo(3);
+        assertThat(readOnlyDataSource.isReadOnly()).isTrue();
+        assertThat(readWriteDataSource.isReadOnly()).isFalse();
+    }
+
+    @Test
+    void readWriteTransactionsUseThePrimaryPool() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            bookRepository.count();
+            assertThat(readWriteDataSource.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package com.library.management.controller;
+
+import com.library.management.model.Book;
+import com.library.management.model.Loan;
+import com.library.management.model.User;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.UserRepository;
+import com.library.management.service.LoanService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.function.Predicate;
+
+import static com.library.management.TestFixtures.book;
+import static com.library.management.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AvailabilityControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void subscribersReceiveCommittedChangesOfTheirBooksOnly() throws Exception {
+        Book watched = bookRepository.save(book(2));
+        Book other = bookRepository.save(book(2));
+        User user = userRepository.save(user());
+        MvcResult result = mockMvc.perform(get("/api/availability/events").param("bookId", watched.getId().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        Loan loan = loanService.borrowBook(user.getId(), watched.getId(), null);
+        loanService.borrowBook(user.getId(), other.getId(), null);
+        loanService.returnBook(loan.getId());
+
+        String events = awaitContent(result.getResponse(), content -> content.contains("\"status\":\"RETURNED\""));
+        assertThat(events).contains("event:availability", "\"bookId\":" + watched.getId(), "\"availableCopies\":2");
+        assertThat(events).contains("event:loan", "\"loanId\":" + loan.getId());
+        assertThat(events).doesNotContain("\"bookId\":" + other.getId());
+    }
+
+    @Test
+    void userSubscribersOnlyReceiveAvailabilityOfTheirUsersBooks() throws Exception {
+        User user = userRepository.save(user());
+        User otherUser = userRepository.save(user());
+        Book alreadyBorrowed = bookRepository.save(book(2));
+        Book borrowedLater = bookRepository.save(book(2));
+        Book other = bookRepository.save(book(2));
+        Loan earlier = loanService.borrowBook(user.getId(), alreadyBorrowed.getId(), null);
+        MvcResult result = mockMvc.perform(get("/api/availability/events").param("userId", user.getId().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        loanService.borrowBook(otherUser.getId(), other.getId(), null);
+        loanService.borrowBook(user.getId(), borrowedLater.getId(), null);
+        loanService.returnBook(earlier.getId());
+
+        String events = awaitContent(result.getResponse(), content -> content.contains("\"status\":\"RETURNED\""));
+        assertThat(events).contains("\"bookId\":" + alreadyBorrowed.getId() + ",\"availableCopies\":2",
+                "\"bookId\":" + borrowedLater.getId() + ",\"availableCopies\":1");
+        assertThat(events).doesNotContain("\"bookId\":" + other.getId());
+    }
+
+    // Events are flushed by the broadcaster's ticker, so they arrive shortly after the commit
+    private static String awaitContent(MockHttpServletResponse response, Predicate<String> done) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        String content = response.getContentAsString();
+        while (!done.test(content) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            content = response.getContentAsString();
+        }
+        assertThat(done.test(content)).as("events received: %s", content).isTrue();
+        return content;
+    }
+}
@@ -0,0 +1,87 @@
+package com.library.management.controller;
+
+import com.library.management.model.Book;
+import com.library.management.model.Loan;
+import com.library.management.model.User;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.UserRepository;
+import com.library.management.service.LoanService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+
+import static com.library.management.TestFixtures.book;
+import static com.library.management.TestFixtures.user;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CompactViewTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void passwordsAreNeverSerialized() throws Exception {
+        User user = userRepository.save(user());
+        mockMvc.perform(get("/api/users/" + user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value(user.getUsername()))
+                .andExpect(jsonPath("$.password").doesNotExist());
+    }
+
+    @Test
+    void fieldsSelectsBookProperties() throws Exception {
+        Book book = book(2);
+        book.setDescription("A long description that list views can leave out");
+        book = bookRepository.save(book);
+        mockMvc.perform(get("/api/books/" + book.getId()).param("fields", "title, author"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", containsInAnyOrder(book.getId().intValue(), book.getTitle(),
+                        book.getAuthor())));
+        mockMvc.perform(get("/api/books").param("after", String.valueOf(book.getId() - 1)).param("limit", "1")
+                        .param("fields", "title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value(book.getTitle()))
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+    }
+
+    @Test
+    void normalizedLoansSideLoadEachBookAndUserOnce() throws Exception {
+        Book book = bookRepository.save(book(2));
+        User user = userRepository.save(user());
+        Loan first = loanService.borrowBook(user.getId(), book.getId(), null);
+        Loan second = loanService.borrowBook(user.getId(), book.getId(), null);
+
+        mockMvc.perform(get("/api/loans/normalized?after={after}&limit=2&fields=title,username", first.getId() - 1))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.LINK, "<http://localhost/api/loans/normalized?limit=2"
+                        + "&fields=title,username&after=" + second.getId() + ">; rel=\"next\""))
+                .andExpect(jsonPath("$.loans[*].id", contains(first.getId().intValue(), second.getId().intValue())))
+                .andExpect(jsonPath("$.loans[0].bookId").value(book.getId()))
+                .andExpect(jsonPath("$.loans[0].book").doesNotExist())
+                .andExpect(jsonPath("$.books.length()").value(1))
+                .andExpect(jsonPath("$.books['" + book.getId() + "'].title").value(book.getTitle()))
+                .andExpect(jsonPath("$.books['" + book.getId() + "'].isbn").doesNotExist())
+                .andExpect(jsonPath("$.users['" + user.getId() + "'].username").value(user.getUsername()))
+                .andExpect(jsonPath("$.users['" + user.getId() + "'].email").doesNotExist());
+    }
+}
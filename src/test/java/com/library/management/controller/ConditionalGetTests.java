@@ -0,0 +1,101 @@
+package com.library.management.controller;
+
+import com.library.management.model.Book;
+import com.library.management.model.User;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.UserRepository;
+import com.library.management.service.BookService;
+import com.library.management.service.LoanService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+
+import static com.library.management.TestFixtures.book;
+import static com.library.management.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void bookIsRevalidatedByItsVersion() throws Exception {
+        Book book = bookRepository.save(book(2));
+        User user = userRepository.save(user());
+        String url = "/api/books/" + book.getId();
+
+        MvcResult first = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isEqualTo("\"" + book.getId() + ".0\"");
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/books/isbn/" + book.getIsbn()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(url).header(HttpHeaders.IF_MODIFIED_SINCE,
+                        first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)))
+                .andExpect(status().isNotModified());
+
+        // A borrow goes through a bulk update, which must move the version as well
+        loanService.borrowBook(user.getId(), book.getId(), null);
+        MvcResult changed = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(changed.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(changed.getResponse().getContentAsString()).contains("\"availableCopies\":1");
+    }
+
+    @Test
+    void listsAreRevalidatedByTheCollectionVersion() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/books").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"books.");
+
+        mockMvc.perform(get("/api/books").param("limit", "5").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        bookService.createBook(book(2));
+        MvcResult changed = mockMvc.perform(get("/api/books").param("limit", "5")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(changed.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void unknownBooksAreStillNotFound() throws Exception {
+        mockMvc.perform(get("/api/books/" + Long.MAX_VALUE).header(HttpHeaders.IF_NONE_MATCH, "\"1.0\""))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,150 @@
+package com.library.management.controller;
+
+import com.library.management.model.Book;
+import com.library.management.model.Loan;
+import com.library.management.model.User;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.LoanRepository;
+import com.library.management.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExportControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    private String genre;
+    private Book book;
+    private Loan returned;
+
+    @BeforeEach
+    void setUp() {
+        genre = "Export" + System.nanoTime();
+        User user = userRepository.save(User.builder()
+                .name("Export Reader")
+                .email("export-" + System.nanoTime() + "@example.com")
+                .username("export-" + System.nanoTime())
+                .password("secret")
+                .membershipType("BASIC")
+                .active(true)
+                .build());
+        book = bookRepository.save(Book.builder()
+                .title("Commas, \"Quotes\" and Tables")
+                .author("Some Author")
+                .isbn("E" + System.nanoTime())
+                .publicationDate(LocalDate.of(2000, 1, 1))
+                .genre(genre)
+                .totalCopies(2)
+                .availableCopies(2)
+                .build());
+        returned = loanRepository.save(Loan.builder()
+                .user(user).book(book)
+                .loanDate(LocalDate.of(1990, 3, 1))
+                .dueDate(LocalDate.of(1990, 3, 15))
+                .returnDate(LocalDate.of(1990, 3, 10))
+                .status(Loan.LoanStatus.RETURNED)
+                .build());
+        loanRepository.save(Loan.builder()
+                .user(user).book(book)
+                .loanDate(LocalDate.of(1990, 4, 1))
+                .dueDate(LocalDate.of(1990, 4, 15))
+                .status(Loan.LoanStatus.BORROWED)
+                .build());
+    }
+
+    @Test
+    void booksAreExportedAsCsvFilteredByGenre() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/books/export").param("genre", genre))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books.csv\""));
+
+        String csv = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(csv.split("\r\n")).containsExactly(
+                "id,isbn,title,author,publicationDate,genre,totalCopies,availableCopies,activeLoans,lifetimeBorrows,overdueLoans",
+                book.getId() + "," + book.getIsbn() + ",\"Commas, \"\"Quotes\"\" and Tables\",Some Author,2000-01-01,"
+                        + genre + ",2,2,0,0,0");
+    }
+
+    @Test
+    void loansAreExportedAsGzippedNdjsonFilteredByStatusAndDate() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/loans/export")
+                        .param("format", "ndjson")
+                        .param("status", "returned")
+                        .param("from", "1990-01-01")
+                        .param("to", "1990-12-31")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, NdjsonStreamer.APPLICATION_NDJSON_VALUE));
+
+        // Other tests share the database, so only this test's book is looked at
+        List<String> lines = gunzip(result.getResponse().getContentAsByteArray()).lines()
+                .filter(line -> line.contains("\"bookId\":" + book.getId() + ","))
+                .toList();
+        assertThat(lines).singleElement().asString()
+                .contains("\"id\":" + returned.getId(), "\"status\":\"RETURNED\"", "\"returnDate\":\"1990-03-10\"");
+    }
+
+    @Test
+    void invalidFiltersAreRejected() throws Exception {
+        mockMvc.perform(get("/api/loans/export").param("status", "MISPLACED")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/loans/export").param("from", "2024-02-01").param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/books/export").param("format", "xlsx")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void gzipIsOnlyUsedWhenAccepted() {
+        assertThat(ExportStreamer.acceptsGzip("gzip, deflate")).isTrue();
+        assertThat(ExportStreamer.acceptsGzip("*")).isTrue();
+        assertThat(ExportStreamer.acceptsGzip("GZIP;q=0.5")).isTrue();
+        assertThat(ExportStreamer.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(ExportStreamer.acceptsGzip("identity")).isFalse();
+        assertThat(ExportStreamer.acceptsGzip(null)).isFalse();
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.library.management.controller;
+
+import com.library.management.model.Book;
+import com.library.management.model.Loan;
+import com.library.management.model.User;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.LoanRepository;
+import com.library.management.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class LoanControllerQueryCountTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    private Statistics statistics;
+    private User user;
+    private Loan loan;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        user = userRepository.save(User.builder()
+                .name("Query Counter")
+                .email("query-" + System.nanoTime() + "@example.com")
+                .username("query-" + System.nanoTime())
+                .password("secret")
+                .membershipType("BASIC")
+                .active(true)
+                .build());
+        Book book = bookRepository.save(Book.builder()
+                .title("Counted Title")
+                .author("Some Author")
+                .isbn("Q" + System.nanoTime())
+                .publicationDate(LocalDate.of(2000, 1, 1))
+                .description("x".repeat(1000))
+                .genre("Testing")
+                .totalCopies(5)
+                .availableCopies(3)
+                .build());
+        loan = loanRepository.save(Loan.builder()
+                .user(user).book(book)
+                .loanDate(LocalDate.now().minusDays(20))
+                .dueDate(LocalDate.now().minusDays(6))
+                .status(Loan.LoanStatus.BORROWED)
+                .build());
+        loanRepository.save(Loan.builder()
+                .user(user).book(book)
+                .loanDate(LocalDate.now())
+                .dueDate(LocalDate.now().plusDays(3))
+                .status(Loan.LoanStatus.BORROWED)
+                .build());
+    }
+
+    @Test
+    void loanReadEndpointsIssueASingleStatement() throws Exception {
+        List<String> uris = List.of(
+                "/api/loans",
+                "/api/loans/" + loan.getId(),
+                "/api/loans/user/" + user.getId(),
+                "/api/loans/user/" + user.getId() + "/current",
+                "/api/loans/overdue",
+                "/api/loans/due-soon?days=7");
+
+        for (String uri : uris) {
+            statistics.clear();
+            mockMvc.perform(get(uri)).andExpect(status().isOk());
+            assertThat(statistics.getPrepareStatementCount())
+                    .as("SQL statements for GET %s", uri)
+                    .isEqualTo(1);
+        }
+    }
+}
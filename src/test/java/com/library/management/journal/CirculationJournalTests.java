@@ -0,0 +1,82 @@
+package com.library.management.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CirculationJournalTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsEventsAfterTheGivenSequence() {
+        CirculationJournal journal = new CirculationJournal(directory.toString(), 16);
+        journal.append(CirculationEventType.BORROWED, 1L, 10L, 100L);
+        journal.append(CirculationEventType.RENEWED, 1L, 10L, 100L);
+        journal.append(CirculationEventType.RETURNED, 1L, 10L, 100L);
+
+        List<CirculationEvent> events = journal.read(1L, 10);
+
+        assertThat(events).extracting(CirculationEvent::getSequence).containsExactly(2L, 3L);
+        assertThat(events).extracting(CirculationEvent::getType)
+                .containsExactly(CirculationEventType.RENEWED, CirculationEventType.RETURNED);
+        assertThat(events.get(0).getLoanId()).isEqualTo(1L);
+        assertThat(events.get(0).getUserId()).isEqualTo(10L);
+        assertThat(events.get(0).getBookId()).isEqualTo(100L);
+    }
+
+    @Test
+    void rollsOverToNewSegmentsAndReadsAcrossThem() throws IOException {
+        CirculationJournal journal = new CirculationJournal(directory.toString(), 4);
+        for (long loanId = 1; loanId <= 10; loanId++) {
+            journal.append(CirculationEventType.BORROWED, loanId, 1L, 1L);
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count()).isEqualTo(3);
+        }
+        List<Long> loanIds = new ArrayList<>();
+        journal.forEachSince(3L, event -> loanIds.add(event.getLoanId()));
+        assertThat(loanIds).containsExactly(4L, 5L, 6L, 7L, 8L, 9L, 10L);
+    }
+
+    @Test
+    void readStopsAtTheSegmentHoldingTheLimit() throws IOException {
+        CirculationJournal journal = new CirculationJournal(directory.toString(), 4);
+        for (long loanId = 1; loanId <= 10; loanId++) {
+            journal.append(CirculationEventType.BORROWED, loanId, 1L, 1L);
+        }
+        // Reading past the limit would have to open the newest segment
+        Files.delete(directory.resolve(String.format("%020d.journal", 9)));
+
+        assertThat(journal.read(1L, 3)).extracting(CirculationEvent::getSequence).containsExactly(2L, 3L, 4L);
+        assertThat(journal.read(3L, 5)).extracting(CirculationEvent::getSequence)
+                .containsExactly(4L, 5L, 6L, 7L, 8L);
+    }
+
+    @Test
+    void resumesAfterTheLastRecordWhenReopened() {
+        CirculationJournal journal = new CirculationJournal(directory.toString(), 4);
+        for (long loanId = 1; loanId <= 6; loanId++) {
+            journal.append(CirculationEventType.BORROWED, loanId, 1L, 1L);
+        }
+        journal.close();
+
+        CirculationJournal reopened = new CirculationJournal(directory.toString(), 4);
+        assertThat(reopened.getLastSequence()).isEqualTo(6L);
+
+        CirculationEvent next = reopened.append(CirculationEventType.LOST, 7L, 1L, 1L);
+        assertThat(next.getSequence()).isEqualTo(7L);
+        assertThat(reopened.read(0L, 100)).extracting(CirculationEvent::getLoanId)
+                .containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+    }
+}
@@ -0,0 +1,64 @@
+package com.library.management.metrics;
+
+import com.library.management.model.User;
+import com.library.management.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class InstrumentationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void recordsServiceLatencyAndStatementsPerRequest() throws Exception {
+        User user = userRepository.save(User.builder()
+                .name("Metrics User")
+                .email("metrics-" + System.nanoTime() + "@example.com")
+                .username("metrics-" + System.nanoTime())
+                .password("secret")
+                .membershipType("BASIC")
+                .active(true)
+                .build());
+        long requestsBefore = statementSummaryCount();
+        long callsBefore = serviceTimerCount();
+
+        mockMvc.perform(get("/api/users/{id}", user.getId())).andExpect(status().isOk());
+
+        assertThat(statementSummaryCount()).isEqualTo(requestsBefore + 1);
+        assertThat(serviceTimerCount()).isEqualTo(callsBefore + 1);
+    }
+
+    private long statementSummaryCount() {
+        DistributionSummary summary = meterRegistry.find("library.sql.statements")
+                .tag("uri", "/api/users/{id}")
+                .summary();
+        return summary != null ? summary.count() : 0;
+    }
+
+    private long serviceTimerCount() {
+        Timer timer = meterRegistry.find(ServiceTimingAspect.METRIC_NAME)
+                .tag("class", "UserService")
+                .tag("method", "getUserById")
+                .timer();
+        return timer != null ? timer.count() : 0;
+    }
+}
@@ -0,0 +1,85 @@
+package com.library.management.push;
+
+import com.library.management.dto.AvailabilityChange;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SubscriptionTests {
+
+    @Test
+    void closingDuringADrainLeavesCompletionToTheSender() throws Exception {
+        BlockingEmitter emitter = new BlockingEmitter();
+        Subscription subscription = new Subscription(emitter, Set.of(), Set.of(), Set.of(), 10);
+        subscription.offer(new AvailabilityChange(1L, 1, 0L, -1));
+        assertThat(subscription.stalled(System.nanoTime(), 0)).isFalse();
+        assertThat(subscription.startSending()).isTrue();
+
+        ExecutorService sender = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> drain = sender.submit(() -> {
+                subscription.drain();
+                return null;
+            });
+            assertThat(emitter.writing.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(subscription.stalled(System.nanoTime(), 0)).isTrue();
+
+            subscription.close();
+            assertThat(emitter.completions.get()).isZero();
+
+            emitter.release.countDown();
+            drain.get(5, TimeUnit.SECONDS);
+            assertThat(emitter.completions.get()).isEqualTo(1);
+            assertThat(subscription.stalled(System.nanoTime(), 0)).isFalse();
+            assertThat(subscription.startSending()).isFalse();
+        } finally {
+            sender.shutdownNow();
+        }
+    }
+
+    @Test
+    void closingAnIdleSubscriptionCompletesItOnce() {
+        BlockingEmitter emitter = new BlockingEmitter();
+        Subscription subscription = new Subscription(emitter, Set.of(), Set.of(), Set.of(), 10);
+
+        subscription.close();
+        subscription.close();
+
+        assertThat(emitter.completions.get()).isEqualTo(1);
+        assertThat(subscription.startSending()).isFalse();
+    }
+
+    // Holds every send until released, like a client that stopped reading
+    private static final class BlockingEmitter extends SseEmitter {
+
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger completions = new AtomicInteger();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while sending", e);
+            }
+        }
+
+        @Override
+        public void complete() {
+            completions.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.library.management.repository;
+
+import com.library.management.model.Book;
+import com.library.management.model.Hold;
+import com.library.management.model.Loan;
+import com.library.management.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Calls each filtering repository query, captures the SQL Hibernate generates for it together
+ * with the bound parameters, and runs H2 {@code EXPLAIN} on exactly that statement, failing if
+ * any table is read without an index condition. Calls run in a transaction that is rolled back.
+ * The LIKE based {@code searchBooks}/{@code searchUsers} fallbacks and the full-export streams
+ * are intentionally not covered.
+ */
+@SpringBootTest
+@Import(RepositoryQueryPlanTests.StatementCaptureConfig.class)
+class RepositoryQueryPlanTests {
+
+    // H2 annotates every table access with the chosen index, e.g. "/* PUBLIC.IDX_BOOKS_GENRE: GENRE = ?1 */";
+    // a scan shows up as "/* PUBLIC.BOOKS.tableScan */" or as a bare index name without a condition.
+    private static final Pattern TABLE_ACCESS = Pattern.compile("/\\* PUBLIC\\.([^ :*]+)(:?)");
+
+    // Inserts always go by primary key; everything else that reads rows gets planned
+    private static final Pattern PLANNED = Pattern.compile("^\\s*(select|update|delete|with)\\b", Pattern.CASE_INSENSITIVE);
+
+    // Statements prepared on this thread while a query is being captured, null otherwise
+    private static final ThreadLocal<List<CapturedStatement>> CAPTURED = new ThreadLocal<>();
+
+    private static final PageRequest PAGE = PageRequest.ofSize(500);
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 1);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private ArchivedLoanRepository archivedLoanRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    static Stream<Arguments> queries() {
+        return Stream.of(
+                query("BookRepository.findByIsbn", t -> t.bookRepository.findByIsbn("978-0")),
+                query("BookRepository.findVersionById", t -> t.bookRepository.findVersionById(1L)),
+                query("BookRepository.findByAuthor", t -> t.bookRepository.findByAuthor("Author")),
+                query("BookRepository.findByGenre", t -> t.bookRepository.findByGenre("Fiction")),
+                query("BookRepository.findAllAvailableBooks", t -> t.bookRepository.findAllAvailableBooks()),
+                query("BookRepository.findByIdGreaterThanOrderByIdAsc",
+                        t -> t.bookRepository.findByIdGreaterThanOrderByIdAsc(10L, PageRequest.ofSize(100))),
+                query("BookRepository.findAllByIdForUpdate", t -> t.bookRepository.findAllByIdForUpdate(List.of(1L, 2L, 3L))),
+                query("BookRepository.findPageForUpdate", t -> t.bookRepository.findPageForUpdate(10L, PAGE)),
+                query("BookRepository.findAvailabilityByIdIn", t -> t.bookRepository.findAvailabilityByIdIn(List.of(1L, 2L))),
+                query("BookRepository.claimCopy", t -> t.bookRepository.claimCopy(1L)),
+                query("UserRepository.findByUsername", t -> t.userRepository.findByUsername("user")),
+                query("UserRepository.findByEmail", t -> t.userRepository.findByEmail("user@example.com")),
+                query("UserRepository.findAllActiveUsers", t -> t.userRepository.findAllActiveUsers()),
+                query("UserRepository.findByIdGreaterThanOrderByIdAsc",
+                        t -> t.userRepository.findByIdGreaterThanOrderByIdAsc(10L, PageRequest.ofSize(100))),
+                query("UserRepository.findPageForUpdate", t -> t.userRepository.findPageForUpdate(10L, PAGE)),
+                query("LoanRepository.findByUser", t -> t.loanRepository.findByUser(t.reference(User.class))),
+                query("LoanRepository.findByBook", t -> t.loanRepository.findByBook(t.reference(Book.class))),
+                query("LoanRepository.findByStatus", t -> t.loanRepository.findByStatus(Loan.LoanStatus.BORROWED)),
+                query("LoanRepository.findAllOverdueLoans", t -> t.loanRepository.findAllOverdueLoans()),
+                query("LoanRepository.findCurrentLoansByUser",
+                        t -> t.loanRepository.findCurrentLoansByUser(t.reference(User.class))),
+                query("LoanRepository.findLoansDueBetween", t -> t.loanRepository.findLoansDueBetween(DAY, DAY.plusDays(7))),
+                query("LoanRepository.findOverdueCandidateIds", t -> t.loanRepository.findOverdueCandidateIds(DAY, PAGE)),
+                query("LoanRepository.findOverdueCandidateIdsSince",
+                        t -> t.loanRepository.findOverdueCandidateIdsSince(DAY.minusDays(1), DAY, PAGE)),
+                query("LoanRepository.markOverdue", t -> t.loanRepository.markOverdue(List.of(1L, 2L))),
+                query("LoanRepository.markReturned",
+                        t -> t.loanRepository.markReturned(1L, Loan.LoanStatus.BORROWED, DAY, null)),
+                query("LoanRepository.countCirculationByBookIdBetween",
+                        t -> t.loanRepository.countCirculationByBookIdBetween(1L, 500L)),
+                query("LoanRepository.countCirculationByUserIdBetween",
+                        t -> t.loanRepository.countCirculationByUserIdBetween(1L, 500L)),
+                query("LoanRepository.findArchivableIds", t -> t.loanRepository.findArchivableIds(DAY.minusYears(1), PAGE)),
+                query("LoanRepository.findOpenLoanBookIdsByUserIdIn",
+                        t -> t.loanRepository.findOpenLoanBookIdsByUserIdIn(List.of(1L, 2L))),
+                query("LoanRepository.findWithBookAndUserById", t -> t.loanRepository.findWithBookAndUserById(1L)),
+                query("LoanRepository.findSummaryById", t -> t.loanRepository.findSummaryById(1L)),
+                query("LoanRepository.findSummaryPageAfter",
+                        t -> t.loanRepository.findSummaryPageAfter(10L, PageRequest.ofSize(100))),
+                query("LoanRepository.findSummariesWithArchiveByUserId",
+                        t -> t.loanRepository.findSummariesWithArchiveByUserId(1L)),
+                query("LoanRepository.findCurrentSummariesByUserId", t -> t.loanRepository.findCurrentSummariesByUserId(1L)),
+                query("LoanRepository.findOverdueSummaries", t -> t.loanRepository.findOverdueSummaries()),
+                query("LoanRepository.findSummariesDueBetween",
+                        t -> t.loanRepository.findSummariesDueBetween(DAY, DAY.plusDays(7))),
+                query("HoldRepository.findFirstByBookIdAndStatusOrderById",
+                        t -> t.holdRepository.findFirstByBookIdAndStatusOrderById(1L, Hold.HoldStatus.WAITING)),
+                query("HoldRepository.findByUserIdOrderById", t -> t.holdRepository.findByUserIdOrderById(1L)),
+                query("HoldRepository.findExpiredIds", t -> t.holdRepository.findExpiredIds(DAY.atStartOfDay(), PAGE)),
+                query("HoldRepository.findActiveBookIdsByUserIdIn",
+                        t -> t.holdRepository.findActiveBookIdsByUserIdIn(List.of(1L, 2L))),
+                query("ArchivedLoanRepository.findByUserIdOrderById", t -> t.archivedLoanRepository.findByUserIdOrderById(1L)),
+                query("ArchivedLoanRepository.countCirculationByBookIdBetween",
+                        t -> t.archivedLoanRepository.countCirculationByBookIdBetween(1L, 500L)),
+                query("ArchivedLoanRepository.countCirculationByUserIdBetween",
+                        t -> t.archivedLoanRepository.countCirculationByUserIdBetween(1L, 500L)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    void queryUsesAnIndexForEveryTable(String query, RepositoryCall call) throws Exception {
+        List<CapturedStatement> statements = capture(call);
+        assertThat(statements).as("%s issued no statement to plan", query).isNotEmpty();
+
+        for (CapturedStatement statement : statements) {
+            String plan = explain(statement);
+            Matcher access = TABLE_ACCESS.matcher(plan);
+            int tables = 0;
+            while (access.find()) {
+                tables++;
+                assertThat(access.group(2))
+                        .as("%s reads %s without an index condition:%n%s", query, access.group(1), plan)
+                        .isEqualTo(":");
+            }
+            assertThat(tables).as("no table access found in plan:%n%s", plan).isPositive();
+        }
+    }
+
+    private List<CapturedStatement> capture(RepositoryCall call) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return transaction.execute(status -> {
+            status.setRollbackOnly();
+            CAPTURED.set(new ArrayList<>());
+            try {
+                call.run(this);
+                entityManager.flush();
+                return CAPTURED.get().stream()
+                        .filter(statement -> PLANNED.matcher(statement.sql).find())
+                        .toList();
+            } finally {
+                CAPTURED.remove();
+            }
+        });
+    }
+
+    private String explain(CapturedStatement statement) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql)) {
+            for (Binding binding : statement.bindings) {
+                binding.method.invoke(explain, binding.args);
+            }
+            try (ResultSet plan = explain.executeQuery()) {
+                assertThat(plan.next()).isTrue();
+                return plan.getString(1);
+            }
+        }
+    }
+
+    // A reference to a row that need not exist; only its ID is bound
+    private <T> T reference(Class<T> type) {
+        return entityManager.getReference(type, 1L);
+    }
+
+    private static Arguments query(String name, RepositoryCall call) {
+        return Arguments.of(name, call);
+    }
+
+    @FunctionalInterface
+    interface RepositoryCall {
+        void run(RepositoryQueryPlanTests test);
+    }
+
+    private record Binding(Method method, Object[] args) {
+    }
+
+    private record CapturedStatement(String sql, List<Binding> bindings) {
+    }
+
+    /**
+     * Wraps the application's data source so statements prepared while a query is captured are
+     * recorded with the parameter setters called on them, to be replayed on the EXPLAIN.
+     */
+    @TestConfiguration(proxyBeanMethods = false)
+    static class StatementCaptureConfig {
+
+        @Bean
+        static BeanPostProcessor statementCapturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource target && "dataSource".equals(beanName)
+                            ? new CapturingDataSource(target) : bean;
+                }
+            };
+        }
+    }
+
+    private static final class CapturingDataSource extends DelegatingDataSource {
+
+        CapturingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return capturing(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return capturing(super.getConnection(username, password));
+        }
+
+        private static Connection capturing(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (method.getName().equals("prepareStatement") && CAPTURED.get() != null) {
+                            return capturing((PreparedStatement) result, (String) args[0]);
+                        }
+                        return result;
+                    });
+        }
+
+        private static PreparedStatement capturing(PreparedStatement statement, String sql) {
+            List<Binding> bindings = new ArrayList<>();
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                            bindings.add(new Binding(method, args.clone()));
+                        } else if (name.startsWith("execute") || name.equals("addBatch")) {
+                            List<CapturedStatement> captured = CAPTURED.get();
+                            if (captured != null) {
+                                captured.add(new CapturedStatement(sql, List.copyOf(bindings)));
+                            }
+                        } else if (name.equals("clearParameters")) {
+                            bindings.clear();
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
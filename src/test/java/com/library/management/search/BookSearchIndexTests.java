@@ -0,0 +1,120 @@
+package com.library.management.search;
+
+import com.library.management.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookSearchIndexTests {
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex();
+        index.index(book(1L, "The Hobbit", "J.R.R. Tolkien", "978-0547928227", "Fantasy", "Bilbo Baggins goes on an adventure"));
+        index.index(book(2L, "The Lord of the Rings", "J.R.R. Tolkien", "9780618640157", "Fantasy", "An epic high-fantasy trilogy"));
+        index.index(book(3L, "Brave New World", "Aldous Huxley", "9780060850524", "Science Fiction", "A dystopian novel"));
+    }
+
+    @Test
+    void ranksTitleMatchesAboveDescriptionMatches() {
+        index.index(book(4L, "Fantasy Worlds", "Someone Else", "1111111111", "Reference", "Maps"));
+
+        assertThat(index.search("fantasy", 10).getResults()).startsWith(4L);
+    }
+
+    @Test
+    void matchesLastTokenAsPrefix() {
+        assertThat(index.search("tolk", 10).getResults()).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("lord ri", 10).getResults()).containsExactly(2L);
+    }
+
+    @Test
+    void requiresEveryTokenToMatch() {
+        assertThat(index.search("tolkien dystopian", 10).getResults()).isEmpty();
+    }
+
+    @Test
+    void matchesIsbnWithoutSeparators() {
+        assertThat(index.search("9780547928227", 10).getResults()).containsExactly(1L);
+    }
+
+    @Test
+    void reindexingReplacesOldTerms() {
+        index.index(book(3L, "Island", "Aldous Huxley", "9780060850524", "Fiction", null));
+
+        assertThat(index.search("brave", 10).getResults()).isEmpty();
+        assertThat(index.search("island", 10).getResults()).containsExactly(3L);
+    }
+
+    @Test
+    void removeDropsTheBook() {
+        index.remove(1L);
+
+        assertThat(index.search("hobbit", 10).getResults()).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void intersectsAndSumsScoresAcrossTokens() {
+        for (long id = 10; id < 100; id++) {
+            index.index(book(id, "Common Title " + id, "Someone", "ISBN" + id, "Fiction", null));
+        }
+        index.index(book(100L, "Common Hobbit", "J.R.R. Tolkien", "ISBN100", "Fiction", null));
+
+        assertThat(index.search("common tolkien", 10).getResults()).containsExactly(100L);
+        assertThat(index.search("tolkien hobbit", 10).getResults()).containsExactly(1L, 100L);
+    }
+
+    @Test
+    void reportsAPrefixThatExpandsToTooManyTerms() {
+        for (long id = 10; id < 310; id++) {
+            index.index(book(id, "Zeta" + id, "Someone", "ISBN" + id, "Reference", null));
+        }
+
+        SearchHits<Long> broad = index.search("zeta", 10);
+        assertThat(broad.isTruncated()).isTrue();
+        assertThat(broad.getResults()).hasSize(10);
+        assertThat(index.search("zeta12", 10).isTruncated()).isFalse();
+        assertThat(index.search("hobbit", 10).isTruncated()).isFalse();
+    }
+
+    @Test
+    void rebuildSwapsInAtOnceAndReplaysWritesMadeDuringTheScan() {
+        index.rebuild(sink -> {
+            sink.accept(book(2L, "The Lord of the Rings", "J.R.R. Tolkien", "9780618640157", "Fantasy", null));
+            sink.accept(book(5L, "Old Title", "Writer", "5555555555", "Fiction", null));
+            // Searches still see the previous index while the scan runs
+            assertThat(index.search("hobbit", 10).getResults()).containsExactly(1L);
+            assertThat(index.search("old", 10).getResults()).isEmpty();
+            // Writes committed while scanning, after their rows were read
+            index.index(book(5L, "New Title", "Writer", "5555555555", "Fiction", null));
+            index.remove(2L);
+        });
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.search("hobbit", 10).getResults()).isEmpty();
+        assertThat(index.search("old", 10).getResults()).isEmpty();
+        assertThat(index.search("new", 10).getResults()).containsExactly(5L);
+        assertThat(index.search("lord", 10).getResults()).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    private static Book book(Long id, String title, String author, String isbn, String genre, String description) {
+        return Book.builder()
+                .id(id)
+                .title(title)
+                .author(author)
+                .isbn(isbn)
+                .genre(genre)
+                .description(description)
+                .publicationDate(LocalDate.of(2000, 1, 1))
+                .totalCopies(1)
+                .availableCopies(1)
+                .build();
+    }
+}
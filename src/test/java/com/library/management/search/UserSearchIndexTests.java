@@ -0,0 +1,87 @@
+package com.library.management.search;
+
+import com.library.management.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserSearchIndexTests {
+
+    private UserSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserSearchIndex();
+        index.index(user(1L, "John Smith", "jsmith", "john.smith@example.com"));
+        index.index(user(2L, "Johanna Meyer", "jmeyer", "johanna@mail.example.org"));
+        index.index(user(3L, "Maria Garcia", "mgarcia", "maria.garcia@example.com"));
+    }
+
+    @Test
+    void ranksUsernameMatchesAboveNameMatches() {
+        index.index(user(4L, "Someone Else", "meyer", "someone@example.com"));
+
+        assertThat(index.search("meyer", 10)).containsExactly(4L, 2L);
+    }
+
+    @Test
+    void matchesLastTokenAsPrefix() {
+        assertThat(index.search("joh", 10)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("john sm", 10)).containsExactly(1L);
+        assertThat(index.search("maria.garcia@exa", 10)).containsExactly(3L);
+    }
+
+    @Test
+    void correctsMisspelledTokens() {
+        assertThat(index.search("jhon", 10)).containsExactly(1L);
+        assertThat(index.search("garica", 10)).containsExactly(3L);
+        assertThat(index.search("smith mria", 10)).isEmpty();
+        assertThat(index.search("maria garcai", 10)).containsExactly(3L);
+        assertThat(index.search("meyr", 10)).containsExactly(2L);
+    }
+
+    @Test
+    void exactMatchesAreNotDilutedByCorrections() {
+        index.index(user(4L, "Jon Doe", "jdoe", "jdoe@example.com"));
+
+        assertThat(index.search("jon", 10)).containsExactly(4L);
+    }
+
+    @Test
+    void honoursTheLimit() {
+        assertThat(index.search("example", 1)).hasSize(1);
+    }
+
+    @Test
+    void reindexingAndRemovalKeepTheIndexExact() {
+        index.index(user(1L, "John Baker", "jbaker", "john.baker@example.com"));
+        assertThat(index.search("smith", 10)).isEmpty();
+        assertThat(index.search("baker", 10)).containsExactly(1L);
+
+        index.remove(2L);
+        assertThat(index.search("johanna", 10)).isEmpty();
+        assertThat(index.search("meyer", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void distanceCountsTranspositionsAsOneEdit() {
+        assertThat(UserSearchIndex.distance("jhon", "john", false, 1)).isEqualTo(1);
+        assertThat(UserSearchIndex.distance("jhon", "johnson", true, 1)).isEqualTo(1);
+        assertThat(UserSearchIndex.distance("jhon", "johnson", false, 1)).isEqualTo(2);
+        assertThat(UserSearchIndex.distance("maria", "mario", false, 1)).isEqualTo(1);
+    }
+
+    private static User user(Long id, String name, String username, String email) {
+        return User.builder()
+                .id(id)
+                .name(name)
+                .username(username)
+                .email(email)
+                .password("secret")
+                .membershipType("BASIC")
+                .active(true)
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.library.management.service;
+
+import com.library.management.exception.ResourceNotFoundException;
+import com.library.management.model.Book;
+import com.library.management.model.User;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+
+import static com.library.management.TestFixtures.book;
+import static com.library.management.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class BookCacheTests {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void borrowingEvictsTheCachedBookUnderBothKeys() {
+        Book book = bookRepository.save(book(2));
+        Book cached = bookService.getBookById(book.getId());
+        assertThat(bookService.getBookById(book.getId())).isSameAs(cached);
+        assertThat(bookService.getBookByIsbn(book.getIsbn()).getAvailableCopies()).isEqualTo(2);
+
+        loanService.borrowBook(userRepository.save(user()).getId(), book.getId(), null);
+
+        assertThat(bookService.getBookById(book.getId()).getAvailableCopies()).isEqualTo(1);
+        assertThat(bookService.getBookByIsbn(book.getIsbn()).getAvailableCopies()).isEqualTo(1);
+    }
+
+    @Test
+    void changingTheIsbnEvictsTheOldKey() {
+        Book book = bookRepository.save(book(2));
+        String oldIsbn = book.getIsbn();
+        assertThat(bookService.getBookByIsbn(oldIsbn).getId()).isEqualTo(book.getId());
+        bookService.getBookById(book.getId());
+
+        Book details = bookRepository.findById(book.getId()).orElseThrow();
+        String newIsbn = "C" + System.nanoTime();
+        details.setIsbn(newIsbn);
+        bookService.updateBook(book.getId(), details);
+
+        assertThatThrownBy(() -> bookService.getBookByIsbn(oldIsbn)).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(bookService.getBookByIsbn(newIsbn).getId()).isEqualTo(book.getId());
+        assertThat(bookService.getBookById(book.getId()).getIsbn()).isEqualTo(newIsbn);
+    }
+}
@@ -0,0 +1,175 @@
+package com.library.management.service;
+
+import com.library.management.catalog.CatalogFormat;
+import com.library.management.catalog.CatalogReader;
+import com.library.management.dto.ImportEvent;
+import com.library.management.model.Book;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.UserRepository;
+import com.library.management.search.BookSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.library.management.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class CatalogImportServiceTests {
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void csvFeedIsUpsertedInBatchesWithPerRowErrors() throws IOException {
+        String prefix = "CSV" + System.nanoTime();
+        String feed = "ISBN,Title,Author,Publication_Date,Genre,Description,Copies\n" +
+                prefix + "-1,Quilted Harbors,Ann Writer,2001-02-03,Fiction,\"Sails, storms and \"\"harbors\"\"\nacross lines\",2\r\n" +
+                prefix + "-2,Second Title,Bo Writer,2002-01-01,History,,\n" +
+                prefix + "-1,Duplicate,Ann Writer,2001-02-03,Fiction,,1\n" +
+                prefix + "-3,Bad Date,Cy Writer,someday,Fiction,,1\n" +
+                prefix + "-4,,No Title,2003-01-01,Fiction,,1\n" +
+                "\n" +
+                prefix + "-5,Fifth Title,Di Writer,2004-01-01,Science,,3\n";
+
+        List<ImportEvent> events = new ArrayList<>();
+        ImportEvent summary = importFeed(CatalogFormat.CSV, feed.getBytes(StandardCharsets.UTF_8), 2, events);
+
+        assertThat(summary.getRead()).isEqualTo(6);
+        assertThat(summary.getUpserted()).isEqualTo(3);
+        assertThat(summary.getRejected()).isEqualTo(3);
+        assertThat(events).filteredOn(event -> event.getType() == ImportEvent.Type.ERROR)
+                .extracting(ImportEvent::getPosition, ImportEvent::getMessage)
+                .containsExactly(
+                        tuple(3L, "Duplicate ISBN in feed: " + prefix + "-1"),
+                        tuple(4L, "Invalid publication date: someday"),
+                        tuple(5L, "Title is required"));
+        assertThat(events).filteredOn(event -> event.getType() == ImportEvent.Type.PROGRESS).isNotEmpty();
+
+        Book first = bookRepository.findByIsbn(prefix + "-1").orElseThrow();
+        assertThat(first.getDescription()).isEqualTo("Sails, storms and \"harbors\"\nacross lines");
+        assertThat(first.getTotalCopies()).isEqualTo(2);
+        assertThat(first.getAvailableCopies()).isEqualTo(2);
+        assertThat(bookRepository.findByIsbn(prefix + "-2").orElseThrow().getTotalCopies()).isEqualTo(1);
+        assertThat(bookSearchIndex.search("quilted harbors", 10).getResults()).contains(first.getId());
+
+        // A later delivery of a known ISBN updates the record and its copy count
+        String update = "isbn,title,author,publication_date,genre,copies\n" +
+                prefix + "-1,Quilted Harbors (Revised),Ann Writer,2001-02-03,Fiction,3\n";
+        importFeed(CatalogFormat.CSV, update.getBytes(StandardCharsets.UTF_8), null, new ArrayList<>());
+
+        Book updated = bookRepository.findByIsbn(prefix + "-1").orElseThrow();
+        assertThat(updated.getId()).isEqualTo(first.getId());
+        assertThat(updated.getTitle()).isEqualTo("Quilted Harbors (Revised)");
+        assertThat(updated.getDescription()).isEqualTo(first.getDescription());
+        assertThat(updated.getTotalCopies()).isEqualTo(3);
+        assertThat(updated.getAvailableCopies()).isEqualTo(3);
+    }
+
+    @Test
+    void reimportingTheSameFeedLeavesTheCopyCountsAlone() throws IOException {
+        String isbn = "CSV" + System.nanoTime();
+        byte[] feed = ("isbn,title,author,publication_date,genre,copies\n" +
+                isbn + ",Delivered Twice,Ann Writer,2001-02-03,Fiction,2\n").getBytes(StandardCharsets.UTF_8);
+        importFeed(CatalogFormat.CSV, feed, null, new ArrayList<>());
+        Book book = bookRepository.findByIsbn(isbn).orElseThrow();
+        loanService.borrowBook(userRepository.save(user()).getId(), book.getId(), null);
+
+        ImportEvent summary = importFeed(CatalogFormat.CSV, feed, null, new ArrayList<>());
+
+        assertThat(summary.getUpserted()).isEqualTo(1);
+        Book reimported = bookRepository.findByIsbn(isbn).orElseThrow();
+        assertThat(reimported.getTotalCopies()).isEqualTo(2);
+        assertThat(reimported.getAvailableCopies()).isEqualTo(1);
+
+        // A feed listing fewer copies than are out on loan keeps the loaned ones
+        byte[] shrunk = ("isbn,title,author,publication_date,genre,copies\n" +
+                isbn + ",Delivered Twice,Ann Writer,2001-02-03,Fiction,1\n").getBytes(StandardCharsets.UTF_8);
+        importFeed(CatalogFormat.CSV, shrunk, null, new ArrayList<>());
+        importFeed(CatalogFormat.CSV, shrunk, null, new ArrayList<>());
+
+        Book reduced = bookRepository.findByIsbn(isbn).orElseThrow();
+        assertThat(reduced.getTotalCopies()).isEqualTo(1);
+        assertThat(reduced.getAvailableCopies()).isZero();
+    }
+
+    @Test
+    void marcRecordsAreParsedFromTheirLeaderAndDirectory() throws IOException {
+        String isbn = "97" + String.format("%011d", System.nanoTime() % 100_000_000_000L);
+        ByteArrayOutputStream feed = new ByteArrayOutputStream();
+        feed.write(marc(
+                "001", "ocm000001",
+                "020", "  \u001Fa" + isbn + " (pbk.)",
+                "100", "1 \u001FaLovelace, Ada,",
+                "245", "10\u001FaNotes on the engine :\u001Fba translation /",
+                "264", " 1\u001FaLondon :\u001FbTaylor,\u001Fc1843.",
+                "650", " 0\u001FaComputing."));
+        feed.write('\n');
+        feed.write(marc("245", "10\u001FaNo identifier."));
+
+        List<ImportEvent> events = new ArrayList<>();
+        ImportEvent summary = importFeed(CatalogFormat.MARC, feed.toByteArray(), null, events);
+
+        assertThat(summary.getRead()).isEqualTo(2);
+        assertThat(summary.getUpserted()).isEqualTo(1);
+        assertThat(events).filteredOn(event -> event.getType() == ImportEvent.Type.ERROR)
+                .extracting(ImportEvent::getPosition, ImportEvent::getMessage)
+                .containsExactly(tuple(2L, "ISBN is required"));
+
+        Book book = bookRepository.findByIsbn(isbn).orElseThrow();
+        assertThat(book.getTitle()).isEqualTo("Notes on the engine: a translation");
+        assertThat(book.getAuthor()).isEqualTo("Lovelace, Ada");
+        assertThat(book.getPublicationDate()).isEqualTo(LocalDate.of(1843, 1, 1));
+        assertThat(book.getGenre()).isEqualTo("Computing");
+        assertThat(book.getTotalCopies()).isEqualTo(1);
+    }
+
+    private ImportEvent importFeed(CatalogFormat format, byte[] feed, Integer commitSize, List<ImportEvent> events)
+            throws IOException {
+        try (CatalogReader reader = format.open(new ByteArrayInputStream(feed))) {
+            return catalogImportService.importCatalog(reader, commitSize, events::add);
+        }
+    }
+
+    // Builds one ISO 2709 record from alternating tags and field contents (indicators and subfields)
+    private static byte[] marc(String... tagsAndFields) {
+        ByteArrayOutputStream directory = new ByteArrayOutputStream();
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        for (int i = 0; i < tagsAndFields.length; i += 2) {
+            byte[] field = (tagsAndFields[i + 1] + "\u001E").getBytes(StandardCharsets.UTF_8);
+            directory.writeBytes(String.format("%s%04d%05d", tagsAndFields[i], field.length, data.size())
+                    .getBytes(StandardCharsets.US_ASCII));
+            data.writeBytes(field);
+        }
+        directory.write(0x1E);
+        data.write(0x1D);
+        int base = 24 + directory.size();
+        int length = base + data.size();
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        record.writeBytes(String.format("%05dnam a22%05d   4500", length, base).getBytes(StandardCharsets.US_ASCII));
+        record.writeBytes(directory.toByteArray());
+        record.writeBytes(data.toByteArray());
+        return record.toByteArray();
+    }
+}
@@ -0,0 +1,112 @@
+package com.library.management.service;
+
+import com.library.management.dto.BatchItemResult;
+import com.library.management.model.Book;
+import com.library.management.model.Loan;
+import com.library.management.model.User;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.LoanRepository;
+import com.library.management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static com.library.management.TestFixtures.book;
+import static com.library.management.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class CirculationCounterReconcilerTests {
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private CirculationCounterReconciler reconciler;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void transitionsMaintainCountersAndReconciliationRepairsDrift() {
+        User user = userRepository.save(user());
+        Book book = bookRepository.save(book(3));
+
+        Loan first = loanService.borrowBook(user.getId(), book.getId(), null);
+        Loan second = loanService.borrowBook(user.getId(), book.getId(), null);
+        assertCounters(book, user, 2, 2, 0);
+
+        // What the overdue sweep does for one batch
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> ids = List.of(first.getId());
+            bookRepository.addOverdueLoans(ids);
+            userRepository.addOverdueLoans(ids);
+            loanRepository.markOverdue(ids);
+        });
+        assertCounters(book, user, 2, 2, 1);
+
+        loanService.returnBook(first.getId());
+        assertCounters(book, user, 1, 2, 0);
+
+        loanService.reportLost(second.getId());
+        assertCounters(book, user, 0, 2, 0);
+
+        jdbcTemplate.update("UPDATE books SET active_loans = 7, overdue_loans = 3 WHERE id = ?", book.getId());
+        jdbcTemplate.update("UPDATE users SET lifetime_borrows = 0 WHERE id = ?", user.getId());
+
+        assertThat(reconciler.reconcile()).isGreaterThanOrEqualTo(2);
+        assertCounters(book, user, 0, 2, 0);
+    }
+
+    @Test
+    void lostLoansCannotBeReturned() {
+        User user = userRepository.save(user());
+        Book book = bookRepository.save(book(3));
+        Loan lost = loanService.borrowBook(user.getId(), book.getId(), null);
+        Loan open = loanService.borrowBook(user.getId(), book.getId(), null);
+        loanService.reportLost(lost.getId());
+        assertCounters(book, user, 1, 2, 0);
+
+        assertThatThrownBy(() -> loanService.returnBook(lost.getId())).isInstanceOf(IllegalStateException.class);
+        List<BatchItemResult> results = loanService.returnBooks(List.of(lost.getId(), open.getId()));
+        assertThat(results).extracting(BatchItemResult::isSuccess).containsExactly(false, true);
+
+        // Only the open loan closed, and the written-off copy stayed off the shelf
+        assertCounters(book, user, 0, 2, 0);
+        Book stored = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(stored.getTotalCopies()).isEqualTo(2);
+        assertThat(stored.getAvailableCopies()).isEqualTo(2);
+        assertThat(loanRepository.findById(lost.getId()).orElseThrow().getStatus()).isEqualTo(Loan.LoanStatus.LOST);
+    }
+
+
+
+    private void assertCounters(Book book, User user, long active, long lifetime, long overdue) {
+        Book storedBook = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(storedBook.getActiveLoans()).as("book active loans").isEqualTo(active);
+        assertThat(storedBook.getLifetimeBorrows()).as("book lifetime borrows").isEqualTo(lifetime);
+        assertThat(storedBook.getOverdueLoans()).as("book overdue loans").isEqualTo(overdue);
+
+        User storedUser = userRepository.findById(user.getId()).orElseThrow();
+        assertThat(storedUser.getActiveLoans()).as("user active loans").isEqualTo(active);
+        assertThat(storedUser.getLifetimeBorrows()).as("user lifetime borrows").isEqualTo(lifetime);
+        assertThat(storedUser.getOverdueLoans()).as("user overdue loans").isEqualTo(overdue);
+    }
+}
@@ -0,0 +1,178 @@
+package com.library.management.service;
+
+import com.library.management.dto.BatchItemResult;
+import com.library.management.dto.BorrowRequest;
+import com.library.management.model.Book;
+import com.library.management.model.Hold;
+import com.library.management.model.Loan;
+import com.library.management.model.User;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.HoldRepository;
+import com.library.management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.library.management.TestFixtures.book;
+import static com.library.management.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class HoldServiceTests {
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private HoldExpirySweeper holdExpirySweeper;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void returnedCopiesGoToTheQueueInOrderAndArePickedUp() throws Exception {
+        Book book = bookRepository.save(book(2));
+        User first = userRepository.save(user());
+        User second = userRepository.save(user());
+        Loan loan1 = loanService.borrowBook(first.getId(), book.getId(), null);
+        Loan loan2 = loanService.borrowBook(second.getId(), book.getId(), null);
+
+        User alice = userRepository.save(user());
+        User bob = userRepository.save(user());
+        User carol = userRepository.save(user());
+        Hold aliceHold = holdService.placeHold(alice.getId(), book.getId());
+        Hold bobHold = holdService.placeHold(bob.getId(), book.getId());
+        Hold carolHold = holdService.placeHold(carol.getId(), book.getId());
+        assertThatThrownBy(() -> holdService.placeHold(alice.getId(), book.getId()))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getWaitingHolds()).isEqualTo(3);
+
+        // Both copies come back at once; each must go to a different hold, oldest first
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<Loan>> returns = List.of(
+                executor.submit(() -> {
+                    start.await();
+                    return loanService.returnBook(loan1.getId());
+                }),
+                executor.submit(() -> {
+                    start.await();
+                    return loanService.returnBook(loan2.getId());
+                }));
+        start.countDown();
+        for (Future<Loan> future : returns) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(status(aliceHold)).isEqualTo(Hold.HoldStatus.READY);
+        assertThat(status(bobHold)).isEqualTo(Hold.HoldStatus.READY);
+        assertThat(status(carolHold)).isEqualTo(Hold.HoldStatus.WAITING);
+        Book stored = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(stored.getAvailableCopies()).isZero();
+        assertThat(stored.getWaitingHolds()).isEqualTo(1);
+        assertThat(stored.getActiveLoans()).isZero();
+
+        // Held copies are not on the shelf: only their holders can borrow them
+        assertThatThrownBy(() -> loanService.borrowBook(carol.getId(), book.getId(), null))
+                .isInstanceOf(IllegalStateException.class);
+        loanService.borrowBook(alice.getId(), book.getId(), null);
+        assertThat(status(aliceHold)).isEqualTo(Hold.HoldStatus.FULFILLED);
+        stored = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(stored.getAvailableCopies()).isZero();
+        assertThat(stored.getActiveLoans()).isEqualTo(1);
+        assertThat(stored.getLifetimeBorrows()).isEqualTo(3);
+    }
+
+    @Test
+    void missedPickupsPassTheCopyOnAndCancelledHoldsLeaveTheQueue() {
+        Book book = bookRepository.save(book(1));
+        Loan loan = loanService.borrowBook(userRepository.save(user()).getId(), book.getId(), null);
+        Hold first = holdService.placeHold(userRepository.save(user()).getId(), book.getId());
+        Hold second = holdService.placeHold(userRepository.save(user()).getId(), book.getId());
+        loanService.returnBook(loan.getId());
+        assertThat(status(first)).isEqualTo(Hold.HoldStatus.READY);
+
+        Hold ready = holdRepository.findById(first.getId()).orElseThrow();
+        ready.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        holdRepository.save(ready);
+        assertThat(holdExpirySweeper.sweep()).isGreaterThanOrEqualTo(1);
+
+        assertThat(status(first)).isEqualTo(Hold.HoldStatus.EXPIRED);
+        assertThat(status(second)).isEqualTo(Hold.HoldStatus.READY);
+
+        // Nobody else is waiting, so cancelling the READY hold puts the copy back on the shelf
+        holdService.cancelHold(second.getId());
+        assertThat(status(second)).isEqualTo(Hold.HoldStatus.CANCELLED);
+        Book stored = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(stored.getAvailableCopies()).isEqualTo(1);
+        assertThat(stored.getWaitingHolds()).isZero();
+        assertThatThrownBy(() -> holdService.placeHold(userRepository.save(user()).getId(), book.getId()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void addedCopiesGoToTheQueueAndHeldCopiesAreOnlyForTheirHolders() {
+        Book book = bookRepository.save(book(1));
+        loanService.borrowBook(userRepository.save(user()).getId(), book.getId(), null);
+        User alice = userRepository.save(user());
+        User bob = userRepository.save(user());
+        User walkIn = userRepository.save(user());
+        Hold aliceHold = holdService.placeHold(alice.getId(), book.getId());
+        Hold bobHold = holdService.placeHold(bob.getId(), book.getId());
+
+        // The added copy skips the shelf and is set aside for the oldest hold
+        Book details = bookRepository.findById(book.getId()).orElseThrow();
+        details.setTotalCopies(2);
+        bookService.updateBook(book.getId(), details);
+        assertThat(status(aliceHold)).isEqualTo(Hold.HoldStatus.READY);
+        assertThat(status(bobHold)).isEqualTo(Hold.HoldStatus.WAITING);
+        Book stored = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(stored.getAvailableCopies()).isZero();
+        assertThat(stored.getWaitingHolds()).isEqualTo(1);
+
+        // A shelf copy left behind while a hold waits is not for walk-ins, single or batched
+        jdbcTemplate.update("UPDATE books SET total_copies = 3, available_copies = 1 WHERE id = ?", book.getId());
+        assertThatThrownBy(() -> loanService.borrowBook(walkIn.getId(), book.getId(), null))
+                .isInstanceOf(IllegalStateException.class);
+        List<BatchItemResult> results = loanService.borrowBooks(List.of(
+                new BorrowRequest(walkIn.getId(), book.getId(), null),
+                new BorrowRequest(alice.getId(), book.getId(), null)));
+        assertThat(results).extracting(BatchItemResult::isSuccess).containsExactly(false, true);
+
+        // Alice picked up her held copy in the batch; the shelf copy is still there for Bob's hold
+        assertThat(status(aliceHold)).isEqualTo(Hold.HoldStatus.FULFILLED);
+        stored = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(stored.getAvailableCopies()).isEqualTo(1);
+        assertThat(stored.getActiveLoans()).isEqualTo(2);
+        assertThat(stored.getWaitingHolds()).isEqualTo(1);
+    }
+
+    private Hold.HoldStatus status(Hold hold) {
+        return holdRepository.findById(hold.getId()).orElseThrow().getStatus();
+    }
+}
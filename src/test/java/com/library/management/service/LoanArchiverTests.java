@@ -0,0 +1,108 @@
+package com.library.management.service;
+
+import com.library.management.dto.LoanSummary;
+import com.library.management.model.Book;
+import com.library.management.model.Loan;
+import com.library.management.model.User;
+import com.library.management.repository.ArchivedLoanRepository;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.LoanRepository;
+import com.library.management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class LoanArchiverTests {
+
+    @Autowired
+    private LoanArchiver loanArchiver;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private CirculationCounterReconciler reconciler;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private ArchivedLoanRepository archivedLoanRepository;
+
+    @Test
+    void closedLoansMoveToTheArchiveAndStayInTheUsersHistory() {
+        User user = userRepository.save(User.builder()
+                .name("Archive Patron")
+                .email("archive-" + System.nanoTime() + "@example.com")
+                .username("archive-" + System.nanoTime())
+                .password("secret")
+                .membershipType("BASIC")
+                .active(true)
+                .activeLoans(1)
+                .lifetimeBorrows(3)
+                .build());
+        Book book = bookRepository.save(Book.builder()
+                .title("Archived Title")
+                .author("Some Author")
+                .isbn("A" + System.nanoTime())
+                .publicationDate(LocalDate.of(2000, 1, 1))
+                .genre("Testing")
+                .totalCopies(3)
+                .availableCopies(2)
+                .activeLoans(1)
+                .lifetimeBorrows(3)
+                .build());
+        LocalDate longAgo = LocalDate.now().minusYears(2);
+        Loan returned = loanRepository.save(loan(user, book, longAgo, Loan.LoanStatus.RETURNED, longAgo.plusDays(3)));
+        Loan lost = loanRepository.save(loan(user, book, longAgo, Loan.LoanStatus.LOST, null));
+        Loan open = loanRepository.save(loan(user, book, longAgo, Loan.LoanStatus.BORROWED, null));
+
+        assertThat(loanArchiver.archive()).isGreaterThanOrEqualTo(2);
+
+        assertThat(loanRepository.findById(returned.getId())).isEmpty();
+        assertThat(loanRepository.findById(lost.getId())).isEmpty();
+        assertThat(loanRepository.findById(open.getId())).isPresent();
+        assertThat(archivedLoanRepository.findById(returned.getId())).hasValueSatisfying(archived -> {
+            assertThat(archived.getUsername()).isEqualTo(user.getUsername());
+            assertThat(archived.getBookIsbn()).isEqualTo(book.getIsbn());
+            assertThat(archived.getReturnDate()).isEqualTo(longAgo.plusDays(3));
+        });
+
+        assertThat(loanService.getLoanSummariesByUser(user.getId())).extracting(LoanSummary::getId)
+                .containsExactly(returned.getId(), lost.getId(), open.getId());
+        assertThat(loanService.getLoansByUser(user.getId()))
+                .extracting(Loan::getId, loan -> loan.getBook().getId(), Loan::getStatus)
+                .containsExactly(
+                        tuple(returned.getId(), book.getId(), Loan.LoanStatus.RETURNED),
+                        tuple(lost.getId(), book.getId(), Loan.LoanStatus.LOST),
+                        tuple(open.getId(), book.getId(), Loan.LoanStatus.BORROWED));
+
+        // Archived loans still count towards lifetime borrows, so there is nothing to repair
+        reconciler.reconcile();
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getLifetimeBorrows()).isEqualTo(3);
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getLifetimeBorrows()).isEqualTo(3);
+    }
+
+    private static Loan loan(User user, Book book, LocalDate loanDate, Loan.LoanStatus status, LocalDate returnDate) {
+        return Loan.builder()
+                .user(user)
+                .book(book)
+                .loanDate(loanDate)
+                .dueDate(loanDate.plusWeeks(2))
+                .returnDate(returnDate)
+                .status(status)
+                .build();
+    }
+}
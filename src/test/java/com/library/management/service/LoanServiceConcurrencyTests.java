@@ -0,0 +1,126 @@
+package com.library.management.service;
+
+import com.library.management.model.Book;
+import com.library.management.model.Loan;
+import com.library.management.model.User;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.LoanRepository;
+import com.library.management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.library.management.TestFixtures.book;
+import static com.library.management.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest
+class LoanServiceConcurrencyTests {
+
+    private static final int COPIES = 50;
+    private static final int BORROWS = 2000;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentBorrowsNeverOversellATitle() throws Exception {
+        User user = userRepository.save(user());
+        Book book = bookRepository.save(book(COPIES));
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < BORROWS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    loanService.borrowBook(user.getId(), book.getId(), null);
+                    succeeded.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Book reloaded = bookRepository.findById(book.getId()).orElseThrow();
+        List<Loan> loans = loanRepository.findByBook(reloaded);
+
+        assertThat(succeeded.get()).isEqualTo(COPIES);
+        assertThat(rejected.get()).isEqualTo(BORROWS - COPIES);
+        assertThat(reloaded.getAvailableCopies()).isZero();
+        assertThat(loans).hasSize(COPIES);
+        assertThat(reloaded.getTotalCopies() - reloaded.getAvailableCopies()).isEqualTo(loans.size());
+        assertThat(reloaded.getActiveLoans()).isEqualTo(COPIES);
+        assertThat(reloaded.getLifetimeBorrows()).isEqualTo(COPIES);
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getActiveLoans()).isEqualTo(COPIES);
+    }
+
+    @Test
+    void aReturnRacingTheOverdueSweepReleasesTheOverdueCounters() {
+        User user = userRepository.save(user());
+        Book book = bookRepository.save(book(1));
+        Loan loan = loanService.borrowBook(user.getId(), book.getId(), null);
+
+        // The sweep marks the loan OVERDUE right after the return has read it as BORROWED
+        LoanRepository racing = mock(LoanRepository.class, delegatesTo(loanRepository));
+        doAnswer(invocation -> {
+            Object read = loanRepository.findWithBookAndUserById(loan.getId());
+            jdbcTemplate.update("UPDATE loans SET status = 'OVERDUE' WHERE id = ?", loan.getId());
+            jdbcTemplate.update("UPDATE books SET overdue_loans = overdue_loans + 1 WHERE id = ?", book.getId());
+            jdbcTemplate.update("UPDATE users SET overdue_loans = overdue_loans + 1 WHERE id = ?", user.getId());
+            return read;
+        }).doAnswer(delegatesTo(loanRepository)).when(racing).findWithBookAndUserById(loan.getId());
+        Object target = AopTestUtils.getTargetObject(loanService);
+        ReflectionTestUtils.setField(target, "loanRepository", racing);
+        try {
+            loanService.returnBook(loan.getId());
+        } finally {
+            ReflectionTestUtils.setField(target, "loanRepository", loanRepository);
+        }
+
+        Book reloaded = bookRepository.findById(book.getId()).orElseThrow();
+        User reloadedUser = userRepository.findById(user.getId()).orElseThrow();
+        assertThat(reloaded.getActiveLoans()).isZero();
+        assertThat(reloaded.getOverdueLoans()).isZero();
+        assertThat(reloadedUser.getActiveLoans()).isZero();
+        assertThat(reloadedUser.getOverdueLoans()).isZero();
+        assertThat(loanRepository.findById(loan.getId()).orElseThrow().getStatus()).isEqualTo(Loan.LoanStatus.RETURNED);
+    }
+}
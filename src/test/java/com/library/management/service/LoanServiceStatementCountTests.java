@@ -0,0 +1,162 @@
+package com.library.management.service;
+
+import com.library.management.dto.BatchItemResult;
+import com.library.management.dto.BorrowRequest;
+import com.library.management.model.Book;
+import com.library.management.model.Loan;
+import com.library.management.model.User;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.LoanRepository;
+import com.library.management.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class LoanServiceStatementCountTests {
+
+    // One join select for the loan, one guarded loan update, one book update, one user counter update
+    private static final long TRANSITION_STATEMENTS = 4;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    private Statistics statistics;
+    private User user;
+    private Book book;
+    private Loan loan;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        user = userRepository.save(User.builder()
+                .name("Statement Counter")
+                .email("statements-" + System.nanoTime() + "@example.com")
+                .username("statements-" + System.nanoTime())
+                .password("secret")
+                .membershipType("BASIC")
+                .active(true)
+                .build());
+        book = bookRepository.save(Book.builder()
+                .title("Circulating Title")
+                .author("Some Author")
+                .isbn("S" + System.nanoTime())
+                .publicationDate(LocalDate.of(2000, 1, 1))
+                .genre("Testing")
+                .totalCopies(2)
+                .availableCopies(1)
+                .build());
+        loan = loanRepository.save(Loan.builder()
+                .user(user).book(book)
+                .loanDate(LocalDate.now().minusDays(20))
+                .dueDate(LocalDate.now().minusDays(6))
+                .status(Loan.LoanStatus.BORROWED)
+                .build());
+    }
+
+    @Test
+    void returnBookUsesMinimalStatements() {
+        statistics.clear();
+        Loan returned = loanService.returnBook(loan.getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(TRANSITION_STATEMENTS);
+        assertThat(returned.getStatus()).isEqualTo(Loan.LoanStatus.RETURNED);
+        assertThat(returned.getReturnDate()).isEqualTo(LocalDate.now());
+        assertThat(returned.getNotes()).isEqualTo("Returned 6 days late");
+
+        Loan stored = loanRepository.findById(loan.getId()).orElseThrow();
+        assertThat(stored.getStatus()).isEqualTo(Loan.LoanStatus.RETURNED);
+        assertThat(stored.getReturnDate()).isEqualTo(LocalDate.now());
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies()).isEqualTo(2);
+
+        assertThatThrownBy(() -> loanService.returnBook(loan.getId())).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void reportLostUsesMinimalStatements() {
+        statistics.clear();
+        loanService.reportLost(loan.getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(TRANSITION_STATEMENTS);
+
+        Loan stored = loanRepository.findById(loan.getId()).orElseThrow();
+        assertThat(stored.getStatus()).isEqualTo(Loan.LoanStatus.LOST);
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getTotalCopies()).isEqualTo(1);
+
+        assertThatThrownBy(() -> loanService.reportLost(loan.getId())).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void borrowBooksReportsEachEntryAndUsesBatchedStatements() {
+        Book other = bookRepository.save(Book.builder()
+                .title("Second Title")
+                .author("Some Author")
+                .isbn("S" + System.nanoTime())
+                .publicationDate(LocalDate.of(2000, 1, 1))
+                .genre("Testing")
+                .totalCopies(1)
+                .availableCopies(1)
+                .build());
+
+        statistics.clear();
+        List<BatchItemResult> results = loanService.borrowBooks(List.of(
+                new BorrowRequest(user.getId(), book.getId(), null),
+                new BorrowRequest(user.getId(), other.getId(), null),
+                new BorrowRequest(user.getId(), book.getId(), null),
+                new BorrowRequest(-1L, book.getId(), null),
+                new BorrowRequest(user.getId(), -1L, null)));
+
+        // One select for the users and one locking the books, a loan insert and a (batched) book update
+        // per borrowed copy, one user counter update, and a hold pickup attempt for the entry without a copy
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2 + 2 * 2 + 1 + 1);
+        assertThat(results).extracting(BatchItemResult::getIndex).containsExactly(0, 1, 2, 3, 4);
+        assertThat(results).extracting(BatchItemResult::isSuccess).containsExactly(true, true, false, false, false);
+        assertThat(results.get(2).getError()).startsWith("Book is not available for borrowing");
+        assertThat(results.get(3).getError()).isEqualTo("User not found with ID: -1");
+        assertThat(results.get(4).getError()).isEqualTo("Book not found with ID: -1");
+
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies()).isZero();
+        assertThat(bookRepository.findById(other.getId()).orElseThrow().getAvailableCopies()).isZero();
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getActiveLoans()).isEqualTo(2);
+    }
+
+    @Test
+    void returnBooksReportsEachEntryAndUsesBatchedStatements() {
+        statistics.clear();
+        List<BatchItemResult> results = loanService.returnBooks(List.of(loan.getId(), loan.getId(), -1L));
+
+        // Book IDs, the book lock and the loans with their books and users: three selects whatever the
+        // batch size, then a loan update and a book update per returned loan and one user counter update
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3 + 2 + 1);
+        assertThat(results).extracting(BatchItemResult::isSuccess).containsExactly(true, false, false);
+        assertThat(results.get(0).getLoan().getStatus()).isEqualTo(Loan.LoanStatus.RETURNED);
+        assertThat(results.get(1).getError()).startsWith("Book already returned on");
+        assertThat(results.get(2).getError()).isEqualTo("Loan not found with ID: -1");
+
+        assertThat(loanRepository.findById(loan.getId()).orElseThrow().getStatus()).isEqualTo(Loan.LoanStatus.RETURNED);
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,68 @@
+package com.library.management.service;
+
+import com.library.management.model.Book;
+import com.library.management.model.Loan;
+import com.library.management.model.User;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.LoanRepository;
+import com.library.management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+
+import static com.library.management.TestFixtures.book;
+import static com.library.management.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class LoanServiceTests {
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void renewingMovesTheDueDateOfAnOpenLoan() {
+        Loan loan = loanService.borrowBook(userRepository.save(user()).getId(), bookRepository.save(book(2)).getId(), null);
+        LocalDate newDueDate = LocalDate.now().plusWeeks(4);
+
+        loanService.renewLoan(loan.getId(), newDueDate);
+
+        Loan renewed = loanRepository.findById(loan.getId()).orElseThrow();
+        assertThat(renewed.getDueDate()).isEqualTo(newDueDate);
+        assertThat(renewed.getStatus()).isEqualTo(Loan.LoanStatus.BORROWED);
+        assertThat(renewed.getNotes()).contains("Loan renewed until: " + newDueDate);
+    }
+
+    @Test
+    void lostLoansCannotBeRenewed() {
+        Loan loan = loanService.borrowBook(userRepository.save(user()).getId(), bookRepository.save(book(2)).getId(), null);
+        loanService.reportLost(loan.getId());
+
+        assertThatThrownBy(() -> loanService.renewLoan(loan.getId(), null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("reported lost");
+        assertThat(loanRepository.findById(loan.getId()).orElseThrow().getDueDate()).isEqualTo(loan.getDueDate());
+    }
+
+    @Test
+    void lostLoansCannotBeReportedLostAgain() {
+        Loan loan = loanService.borrowBook(userRepository.save(user()).getId(), bookRepository.save(book(2)).getId(), null);
+        loanService.reportLost(loan.getId());
+
+        assertThatThrownBy(() -> loanService.reportLost(loan.getId()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already reported lost");
+    }
+}
@@ -0,0 +1,106 @@
+package com.library.management.service;
+
+import com.library.management.model.Book;
+import com.library.management.model.Loan;
+import com.library.management.model.User;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.LoanRepository;
+import com.library.management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OverdueLoanSweeperTests {
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheInvalidator cacheInvalidator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void loansBecomeOverdueOnceAndLoansBehindTheWatermarkAreNotRescanned() {
+        // A sweeper of our own starts without a watermark, like the application on startup;
+        // a batch size of 2 makes the first sweep take several batches
+        OverdueLoanSweeper sweeper = new OverdueLoanSweeper(loanRepository, bookRepository, userRepository,
+                cacheInvalidator, transactionTemplate, 2);
+        User user = userRepository.save(User.builder()
+                .name("Overdue Patron")
+                .email("overdue-" + System.nanoTime() + "@example.com")
+                .username("overdue-" + System.nanoTime())
+                .password("secret")
+                .membershipType("BASIC")
+                .active(true)
+                .activeLoans(4)
+                .lifetimeBorrows(5)
+                .build());
+        Book book = bookRepository.save(Book.builder()
+                .title("Overdue Title")
+                .author("Some Author")
+                .isbn("O" + System.nanoTime())
+                .publicationDate(LocalDate.of(2000, 1, 1))
+                .genre("Testing")
+                .totalCopies(5)
+                .availableCopies(1)
+                .activeLoans(4)
+                .lifetimeBorrows(5)
+                .build());
+        LocalDate today = LocalDate.now();
+        Loan late = loanRepository.save(loan(user, book, today.minusDays(3), Loan.LoanStatus.BORROWED, null));
+        Loan later = loanRepository.save(loan(user, book, today.minusDays(1), Loan.LoanStatus.BORROWED, null));
+        Loan dueToday = loanRepository.save(loan(user, book, today, Loan.LoanStatus.BORROWED, null));
+        Loan returned = loanRepository.save(loan(user, book, today.minusDays(5), Loan.LoanStatus.RETURNED,
+                today.minusDays(2)));
+
+        assertThat(sweeper.sweep()).isGreaterThanOrEqualTo(2);
+
+        assertThat(status(late)).isEqualTo(Loan.LoanStatus.OVERDUE);
+        assertThat(status(later)).isEqualTo(Loan.LoanStatus.OVERDUE);
+        assertThat(status(dueToday)).isEqualTo(Loan.LoanStatus.BORROWED);
+        assertThat(status(returned)).isEqualTo(Loan.LoanStatus.RETURNED);
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getOverdueLoans()).isEqualTo(2);
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getOverdueLoans()).isEqualTo(2);
+
+        // Cannot happen through the services, which reject past due dates: a loan due before the
+        // watermark is left alone, as the second sweep only looks at due dates from the first one on
+        Loan behind = loanRepository.save(loan(user, book, today.minusDays(2), Loan.LoanStatus.BORROWED, null));
+
+        assertThat(sweeper.sweep()).isZero();
+
+        assertThat(status(late)).isEqualTo(Loan.LoanStatus.OVERDUE);
+        assertThat(status(later)).isEqualTo(Loan.LoanStatus.OVERDUE);
+        assertThat(status(behind)).isEqualTo(Loan.LoanStatus.BORROWED);
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getOverdueLoans()).isEqualTo(2);
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getOverdueLoans()).isEqualTo(2);
+    }
+
+    private Loan.LoanStatus status(Loan loan) {
+        return loanRepository.findById(loan.getId()).orElseThrow().getStatus();
+    }
+
+    private static Loan loan(User user, Book book, LocalDate dueDate, Loan.LoanStatus status, LocalDate returnDate) {
+        return Loan.builder()
+                .user(user)
+                .book(book)
+                .loanDate(dueDate.minusWeeks(2))
+                .dueDate(dueDate)
+                .returnDate(returnDate)
+                .status(status)
+                .build();
+    }
+}